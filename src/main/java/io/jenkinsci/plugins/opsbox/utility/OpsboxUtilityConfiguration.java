@@ -0,0 +1,126 @@
+package io.jenkinsci.plugins.opsbox.utility;
+
+import hudson.Extension;
+import hudson.ExtensionList;
+import io.jenkinsci.plugins.opsbox.utility.cache.BuildNameCache;
+import io.jenkinsci.plugins.opsbox.utility.cache.LoadShedder;
+import io.jenkinsci.plugins.opsbox.utility.cache.PermissionCache;
+import io.jenkinsci.plugins.opsbox.utility.index.IndexBuilder;
+import jenkins.model.GlobalConfiguration;
+import lombok.Getter;
+import org.jenkinsci.Symbol;
+import org.kohsuke.stapler.DataBoundSetter;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Global settings of the Opsbox Utility Plugin, shown on the "System" configuration page.
+ */
+@Extension
+@Symbol("opsboxUtility")
+public class OpsboxUtilityConfiguration extends GlobalConfiguration {
+
+    public static final long DEFAULT_CACHE_MAX_WEIGHT_KB = 16 * 1024;
+    public static final long DEFAULT_PERMISSION_CACHE_TTL_SECONDS = 30;
+    public static final int DEFAULT_MAX_CONCURRENT_COMPUTATIONS = 4;
+
+    @Getter
+    private boolean cacheEnabled = true;
+    private long cacheMaxWeightKb = DEFAULT_CACHE_MAX_WEIGHT_KB;
+    private Long permissionCacheTtlSeconds;
+    private Boolean loadSheddingEnabled;
+    private Integer maxConcurrentComputations;
+
+    public OpsboxUtilityConfiguration() {
+        load();
+    }
+
+    @Nonnull
+    public static OpsboxUtilityConfiguration get() {
+        return ExtensionList.lookupSingleton(OpsboxUtilityConfiguration.class);
+    }
+
+    @DataBoundSetter
+    public void setCacheEnabled(boolean cacheEnabled) {
+        this.cacheEnabled = cacheEnabled;
+        save();
+        if (!cacheEnabled) {
+            BuildNameCache.get().invalidateAll();
+        }
+    }
+
+    public long getCacheMaxWeightKb() {
+        return cacheMaxWeightKb <= 0 ? DEFAULT_CACHE_MAX_WEIGHT_KB : cacheMaxWeightKb;
+    }
+
+    @DataBoundSetter
+    public void setCacheMaxWeightKb(long cacheMaxWeightKb) {
+        this.cacheMaxWeightKb = cacheMaxWeightKb;
+        save();
+        BuildNameCache.get().setMaximumWeightBytes(getCacheMaxWeightKb() * 1024);
+        LoadShedder.get().setMaximumWeightBytes(getCacheMaxWeightKb() * 1024);
+    }
+
+    /**
+     * Seconds a READ permission decision on an upstream job is reused; {@code 0} disables the cache.
+     */
+    public long getPermissionCacheTtlSeconds() {
+        return permissionCacheTtlSeconds == null ? DEFAULT_PERMISSION_CACHE_TTL_SECONDS : permissionCacheTtlSeconds;
+    }
+
+    @DataBoundSetter
+    public void setPermissionCacheTtlSeconds(long permissionCacheTtlSeconds) {
+        this.permissionCacheTtlSeconds = Math.max(0, permissionCacheTtlSeconds);
+        save();
+        PermissionCache.get().setTtlSeconds(this.permissionCacheTtlSeconds);
+    }
+
+    /**
+     * Whether choices are served from their last known snapshot while the controller is overloaded.
+     */
+    public boolean isLoadSheddingEnabled() {
+        return loadSheddingEnabled == null || loadSheddingEnabled;
+    }
+
+    @DataBoundSetter
+    public void setLoadSheddingEnabled(boolean loadSheddingEnabled) {
+        this.loadSheddingEnabled = loadSheddingEnabled;
+        save();
+    }
+
+    /**
+     * Choice lists computed at the same time across all parameters; further computations queue up.
+     */
+    public int getMaxConcurrentComputations() {
+        return maxConcurrentComputations == null || maxConcurrentComputations <= 0
+                ? DEFAULT_MAX_CONCURRENT_COMPUTATIONS : maxConcurrentComputations;
+    }
+
+    @DataBoundSetter
+    public void setMaxConcurrentComputations(int maxConcurrentComputations) {
+        this.maxConcurrentComputations = maxConcurrentComputations;
+        save();
+        LoadShedder.get().setMaxConcurrentComputations(getMaxConcurrentComputations());
+    }
+
+    /**
+     * Used by {@code config.jelly} to render the live cache statistics.
+     */
+    public BuildNameCache getBuildNameCache() {
+        return BuildNameCache.get();
+    }
+
+    /**
+     * Used by {@code config.jelly} to render the current load signals.
+     */
+    public LoadShedder getLoadShedder() {
+        return LoadShedder.get();
+    }
+
+    /**
+     * Used by {@code config.jelly} to render the readiness of the startup indexes.
+     */
+    public IndexBuilder getIndexBuilder() {
+        return IndexBuilder.get();
+    }
+}
@@ -0,0 +1,198 @@
+package io.jenkinsci.plugins.opsbox.utility.api;
+
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.Util;
+import hudson.XmlFile;
+import hudson.model.Item;
+import hudson.model.Job;
+import hudson.model.ParameterDefinition;
+import hudson.model.ParametersDefinitionProperty;
+import hudson.model.RootAction;
+import hudson.model.Saveable;
+import hudson.model.listeners.SaveableListener;
+import io.jenkinsci.plugins.opsbox.utility.OpsboxUtilityConfiguration;
+import io.jenkinsci.plugins.opsbox.utility.cache.BuildNameCache;
+import io.jenkinsci.plugins.opsbox.utility.cache.PermissionCache;
+import io.jenkinsci.plugins.opsbox.utility.index.IndexUpdateQueue;
+import io.jenkinsci.plugins.opsbox.utility.index.ItemIndex;
+import io.jenkinsci.plugins.opsbox.utility.parameter.JobBuildNameParameterDefinition;
+import jenkins.model.Jenkins;
+import net.sf.json.JSONNull;
+import net.sf.json.JSONObject;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+import org.kohsuke.stapler.verb.GET;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Batch API returning the Job Build Name Parameter choices of many jobs in one request:
+ * <pre>
+ * GET /opsbox-utility/choices?job=deploy-a&amp;job=folder/deploy-b
+ * GET /opsbox-utility/choices?jobs=deploy-a,folder/deploy-b
+ * </pre>
+ * Jobs are given by full name. Parameters referencing the same upstream job and query are computed once per
+ * request, and every list comes from the shared {@link BuildNameCache}. The response carries an {@code ETag}
+ * derived from version counters rather than from the content, so a matching {@code If-None-Match} is
+ * answered with 304 before any job is looked at.
+ */
+@Extension
+public class BuildNameChoicesAction implements RootAction {
+
+    public static final String URL_NAME = "opsbox-utility";
+
+    static final int MAX_JOBS = 1000;
+
+    // incremented on every save of an item or of Jenkins itself, e.g. changed parameters or permissions
+    private final AtomicLong configVersion = new AtomicLong();
+
+    @Override
+    public String getIconFileName() {
+        // API only, not shown in the side panel
+        return null;
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "Opsbox Utility";
+    }
+
+    @Override
+    public String getUrlName() {
+        return URL_NAME;
+    }
+
+    @GET
+    public void doChoices(StaplerRequest req, StaplerResponse rsp) throws IOException {
+        Set<String> jobNames = jobNames(req);
+        if (jobNames.size() > MAX_JOBS) {
+            rsp.sendError(HttpServletResponse.SC_BAD_REQUEST, "At most " + MAX_JOBS + " jobs per request");
+            return;
+        }
+
+        // taken before rendering, so that a change made meanwhile yields a new tag next time
+        String etag = OpsboxUtilityConfiguration.get().isCacheEnabled() ? etag(jobNames) : null;
+        rsp.setHeader("Cache-Control", "private, no-cache");
+        if (etag != null && matches(req.getHeader("If-None-Match"), etag)) {
+            rsp.setHeader("ETag", etag);
+            rsp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        Rendered rendered = render(jobNames);
+        if (etag != null && !rendered.stale()) {
+            // a list served while shedding load is not cached, so it may change without any version moving
+            rsp.setHeader("ETag", etag);
+        }
+        rsp.setContentType("application/json;charset=UTF-8");
+        rsp.getWriter().write(rendered.json().toString());
+    }
+
+    /**
+     * Tag of the current state of everything a response depends on: the user, the configuration of jobs and
+     * of Jenkins itself, the items upstream names resolve to, the build changes queued and the cached choice
+     * lists. Computed without looking at any job, computing any list or applying queued changes, so that
+     * answering 304 costs next to nothing; rendering applies the changes of the upstream jobs it computes.
+     */
+    private String etag(Set<String> jobNames) {
+        String version = Jenkins.getAuthentication2().getName() + '\n' + configVersion.get()
+                + '\n' + ItemIndex.get().getModCount() + '\n' + IndexUpdateQueue.get().getSubmittedCount()
+                + '\n' + BuildNameCache.get().getModCount() + '\n' + String.join("\n", jobNames);
+        return "\"" + Util.getDigestOf(version) + "\"";
+    }
+
+    static Rendered render(Set<String> jobNames) {
+        Map<JobBuildNameParameterDefinition.UpstreamQuery, JobBuildNameParameterDefinition.Choices> resolved = new HashMap<>();
+        JSONObject jobs = new JSONObject();
+        boolean stale = false;
+
+        for (String jobName : jobNames) {
+            Job<?, ?> job = Jenkins.get().getItemByFullName(jobName, Job.class);
+            if (job == null || !PermissionCache.get().canRead(job)) {
+                jobs.put(jobName, JSONNull.getInstance());
+                continue;
+            }
+
+            JSONObject parameters = new JSONObject();
+            ParametersDefinitionProperty property = job.getProperty(ParametersDefinitionProperty.class);
+            if (property != null) {
+                for (ParameterDefinition definition : property.getParameterDefinitions()) {
+                    if (definition instanceof JobBuildNameParameterDefinition buildNameDefinition) {
+                        JobBuildNameParameterDefinition.Choices choices = resolved.computeIfAbsent(
+                                buildNameDefinition.getResolvedQuery(), q -> buildNameDefinition.getChoiceList());
+                        stale |= choices.isStale();
+                        JSONObject parameter = new JSONObject();
+                        parameter.put("jobName", buildNameDefinition.getJobName());
+                        parameter.put("choices", choices.names());
+                        parameters.put(buildNameDefinition.getName(), parameter);
+                    }
+                }
+            }
+            jobs.put(jobName, parameters);
+        }
+
+        JSONObject result = new JSONObject();
+        result.put("jobs", jobs);
+        return new Rendered(result, stale);
+    }
+
+    record Rendered(JSONObject json, boolean stale) {
+    }
+
+    private static Set<String> jobNames(StaplerRequest req) {
+        Set<String> jobNames = new LinkedHashSet<>();
+        String[] jobs = req.getParameterValues("job");
+        if (jobs != null) {
+            for (String job : jobs) {
+                addJobName(jobNames, job);
+            }
+        }
+        String list = req.getParameter("jobs");
+        if (list != null) {
+            for (String job : list.split(",")) {
+                addJobName(jobNames, job);
+            }
+        }
+        return jobNames;
+    }
+
+    private static void addJobName(Set<String> jobNames, String jobName) {
+        String trimmed = Util.fixEmptyAndTrim(jobName);
+        if (trimmed != null) {
+            jobNames.add(trimmed);
+        }
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        List<String> candidates = new ArrayList<>();
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidates.add(candidate.trim());
+        }
+        return candidates.contains(etag) || candidates.contains("*");
+    }
+
+    /**
+     * Build records are not items; their changes reach the response through {@link BuildNameCache}.
+     */
+    @Extension
+    public static class ConfigListener extends SaveableListener {
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            if (o instanceof Item || o instanceof Jenkins) {
+                ExtensionList.lookupSingleton(BuildNameChoicesAction.class).configVersion.incrementAndGet();
+            }
+        }
+    }
+}
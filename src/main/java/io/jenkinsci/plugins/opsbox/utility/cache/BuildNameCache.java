@@ -0,0 +1,271 @@
+package io.jenkinsci.plugins.opsbox.utility.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import hudson.Extension;
+import hudson.ExtensionList;
+import io.jenkinsci.plugins.opsbox.utility.OpsboxUtilityConfiguration;
+import io.jenkinsci.plugins.opsbox.utility.parameter.BuildEntry;
+import io.jenkinsci.plugins.opsbox.utility.parameter.BuildNameOrder;
+import io.jenkinsci.plugins.opsbox.utility.parameter.BuildSelection;
+
+import javax.annotation.Nonnull;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Caches the build name choice lists computed for {@code JobBuildNameParameterDefinition}.
+ * <p>
+ * The cache is bounded by the estimated heap footprint of its entries rather than by entry count,
+ * so a handful of jobs with a large {@code countLimit} cannot crowd out thousands of small ones.
+ * Eviction is delegated to Caffeine's W-TinyLFU policy, which keeps frequently rendered upstream
+ * jobs resident even when a burst of one-off lookups passes through. Entries are {@link BuildEntry}
+ * lists whose display names are interned, since the same upstream build usually shows up in several
+ * entries (one per count limit and order).
+ * <p>
+ * The keys of each upstream job are tracked separately, so that invalidating a job only touches its own
+ * entries. Lists are computed outside the cache and only stored if the job was not invalidated meanwhile.
+ */
+@Extension
+public class BuildNameCache {
+
+    private static final Logger LOG = Logger.getLogger(BuildNameCache.class.getName());
+
+    // rough object header + field overheads of a 64-bit JVM with compressed oops
+    private static final int ENTRY_OVERHEAD_BYTES = 64;
+    private static final int STRING_OVERHEAD_BYTES = 40;
+
+    // eligible display names per upstream query, for validating triggered values
+    private static final int MAX_NAME_SETS = 1000;
+
+    private final Cache<Key, List<BuildEntry>> cache;
+    private final Cache<Key, Set<String>> names;
+
+    // upstream job full name -> keys cached for it in either cache; replaced on invalidation
+    private final Map<String, JobKeys> jobs = new ConcurrentHashMap<>();
+    private final AtomicLong modCount = new AtomicLong();
+
+    public BuildNameCache() {
+        this(OpsboxUtilityConfiguration.get().getCacheMaxWeightKb() * 1024);
+    }
+
+    BuildNameCache(long maximumWeightBytes) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumWeightBytes)
+                .weigher(BuildNameCache::weigh)
+                .<Key, List<BuildEntry>>removalListener(this::onRemoval)
+                .recordStats()
+                .build();
+        this.names = Caffeine.newBuilder()
+                .maximumSize(MAX_NAME_SETS)
+                .<Key, Set<String>>removalListener(this::onRemoval)
+                .build();
+    }
+
+    @Nonnull
+    public static BuildNameCache get() {
+        return ExtensionList.lookupSingleton(BuildNameCache.class);
+    }
+
+    /**
+     * Returns the cached choices for the given upstream job, computing them with {@code loader} on a miss.
+     * The returned list is immutable.
+     */
+    @Nonnull
+    public List<BuildEntry> get(@Nonnull Key key, @Nonnull Supplier<List<BuildEntry>> loader) {
+        if (!OpsboxUtilityConfiguration.get().isCacheEnabled()) {
+            return List.copyOf(loader.get());
+        }
+        List<BuildEntry> cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        JobKeys current = keysOf(key);
+        List<BuildEntry> entries = List.copyOf(loader.get());
+        putIfCurrent(cache, key, entries, current);
+        return entries;
+    }
+
+    /**
+     * Like {@link #get(Key, Supplier)}, but a miss is computed through {@link LoadShedder}, outside of the cache
+     * so that waiting for a permit never holds up invalidations. A stale snapshot it serves instead of
+     * computing is returned as is and not cached, so the next lookup tries again.
+     */
+    @Nonnull
+    public LoadShedder.Result load(@Nonnull Key key, @Nonnull Supplier<List<BuildEntry>> loader) {
+        LoadShedder shedder = LoadShedder.get();
+        if (!OpsboxUtilityConfiguration.get().isCacheEnabled()) {
+            return shedder.load(key, loader);
+        }
+        List<BuildEntry> cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return new LoadShedder.Result(cached, 0);
+        }
+        JobKeys current = keysOf(key);
+        LoadShedder.Result result = shedder.load(key, loader);
+        if (!result.isStale()) {
+            putIfCurrent(cache, key, result.entries(), current);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the display names of the entries {@code loader} computes for the given key, as a set for
+     * constant time membership checks. Cached and invalidated along with the choice lists.
+     */
+    @Nonnull
+    public Set<String> getNames(@Nonnull Key key, @Nonnull Supplier<List<BuildEntry>> loader) {
+        if (!OpsboxUtilityConfiguration.get().isCacheEnabled()) {
+            return displayNames(loader.get());
+        }
+        Set<String> cached = names.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        JobKeys current = keysOf(key);
+        Set<String> displayNames = displayNames(loader.get());
+        putIfCurrent(names, key, displayNames, current);
+        return displayNames;
+    }
+
+    private JobKeys keysOf(Key key) {
+        return jobs.computeIfAbsent(key.jobFullName(), k -> new JobKeys());
+    }
+
+    /**
+     * Stores a value computed while {@code computedFor} was the current key set of its job. If the job was
+     * invalidated meanwhile the value may predate the change, so it is dropped. Serialized with
+     * {@link #invalidate} by the map entry of the job.
+     */
+    private <V> void putIfCurrent(Cache<Key, V> target, Key key, V value, JobKeys computedFor) {
+        jobs.computeIfPresent(key.jobFullName(), (jobFullName, current) -> {
+            if (current == computedFor) {
+                target.put(key, value);
+                current.keys.add(key);
+            }
+            return current;
+        });
+    }
+
+    private void onRemoval(Key key, Object value, RemovalCause cause) {
+        if (!cause.wasEvicted()) {
+            return;
+        }
+        // keep the key while the other cache still holds it
+        jobs.computeIfPresent(key.jobFullName(), (jobFullName, current) -> {
+            if (!cache.asMap().containsKey(key) && !names.asMap().containsKey(key)) {
+                current.keys.remove(key);
+            }
+            if (current.keys.isEmpty()) {
+                modCount.incrementAndGet();
+                return null;
+            }
+            return current;
+        });
+    }
+
+    private static Set<String> displayNames(List<BuildEntry> entries) {
+        Set<String> displayNames = new HashSet<>(entries.size() * 2);
+        for (BuildEntry entry : entries) {
+            displayNames.add(entry.displayName());
+        }
+        return Collections.unmodifiableSet(displayNames);
+    }
+
+    /**
+     * Drops every entry computed from the given upstream job, whatever the count limit.
+     */
+    public void invalidate(@Nonnull String jobFullName) {
+        JobKeys removed = jobs.remove(jobFullName);
+        if (removed != null) {
+            modCount.incrementAndGet();
+            cache.invalidateAll(removed.keys);
+            names.invalidateAll(removed.keys);
+        }
+    }
+
+    public void invalidateAll() {
+        modCount.incrementAndGet();
+        jobs.clear();
+        cache.invalidateAll();
+        names.invalidateAll();
+    }
+
+    /**
+     * Incremented whenever a job stops being {@link #isCached cached}, i.e. on invalidation and once eviction
+     * took its last entry. While it is unchanged, no list cached before has changed.
+     */
+    public long getModCount() {
+        return modCount.get();
+    }
+
+    /**
+     * Whether any list computed from the given upstream job may be cached.
+     */
+    public boolean isCached(@Nonnull String jobFullName) {
+        return jobs.containsKey(jobFullName);
+    }
+
+    public void setMaximumWeightBytes(long maximumWeightBytes) {
+        cache.policy().eviction().ifPresent(eviction -> eviction.setMaximum(maximumWeightBytes));
+        LOG.fine("Build name cache resized to " + maximumWeightBytes + " bytes");
+    }
+
+    public long getEntryCount() {
+        return cache.estimatedSize();
+    }
+
+    public long getWeightedSizeBytes() {
+        return cache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L);
+    }
+
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    public String getHitRatePercent() {
+        return String.format("%.1f", getStats().hitRate() * 100);
+    }
+
+    public long getEvictionCount() {
+        return getStats().evictionCount();
+    }
+
+    static int weigh(Key key, List<BuildEntry> entries) {
+        long bytes = ENTRY_OVERHEAD_BYTES + STRING_OVERHEAD_BYTES + 2L * key.jobFullName().length();
+        if (key.artifactFilter() != null) {
+            bytes += STRING_OVERHEAD_BYTES + 2L * key.artifactFilter().length();
+        }
+        for (BuildEntry entry : entries) {
+            bytes += entry.estimateBytes();
+        }
+        return (int) Math.min(Integer.MAX_VALUE, bytes);
+    }
+
+    private static final class JobKeys {
+        private final Set<Key> keys = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * Identifies one choice list: the resolved full name of the upstream job, the requested size and order,
+     * the artifact filter if any and the eligible builds.
+     */
+    public record Key(@Nonnull String jobFullName, int countLimit, @Nonnull BuildNameOrder order, String artifactFilter,
+                      @Nonnull BuildSelection selection) {
+
+        public Key(@Nonnull String jobFullName, int countLimit, @Nonnull BuildNameOrder order) {
+            this(jobFullName, countLimit, order, null, BuildSelection.DEFAULT);
+        }
+    }
+}
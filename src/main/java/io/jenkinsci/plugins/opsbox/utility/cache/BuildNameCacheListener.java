@@ -0,0 +1,29 @@
+package io.jenkinsci.plugins.opsbox.utility.cache;
+
+import hudson.Extension;
+import hudson.model.Item;
+import hudson.model.Job;
+import hudson.model.listeners.ItemListener;
+
+/**
+ * Keeps {@link BuildNameCache} and the snapshots of {@link LoadShedder} consistent with the upstream jobs. Changes to their build history are
+ * applied by {@link io.jenkinsci.plugins.opsbox.utility.index.IndexUpdateQueue}.
+ */
+@Extension
+public class BuildNameCacheListener extends ItemListener {
+
+    @Override
+    public void onDeleted(Item item) {
+        if (item instanceof Job) {
+            BuildNameCache.get().invalidate(item.getFullName());
+            LoadShedder.get().forget(item.getFullName());
+        }
+    }
+
+    @Override
+    public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+        // short names are resolved by scanning all items, so a move can change what they point at
+        BuildNameCache.get().invalidateAll();
+        LoadShedder.get().forget(oldFullName);
+    }
+}
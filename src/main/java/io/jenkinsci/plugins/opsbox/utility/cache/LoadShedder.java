@@ -0,0 +1,236 @@
+package io.jenkinsci.plugins.opsbox.utility.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import hudson.Extension;
+import hudson.ExtensionList;
+import io.jenkinsci.plugins.opsbox.utility.OpsboxUtilityConfiguration;
+import io.jenkinsci.plugins.opsbox.utility.parameter.BuildEntry;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Keeps choice list computations from piling up on a busy controller.
+ * <p>
+ * Every computation that misses {@link BuildNameCache} runs under a global limit of
+ * {@link OpsboxUtilityConfiguration#getMaxConcurrentComputations()} permits, handed out in arrival order.
+ * The result is also kept as the last known snapshot of its key, which survives cache invalidation. Snapshots
+ * are weighed like {@link BuildNameCache} entries and bounded by the same size limit. While
+ * the controller is overloaded, i.e. the build queue is long, a number of computations have been waiting
+ * for a permit for a while, or recent computations were slow, a key with a snapshot is answered from it
+ * instead of being recomputed, and callers show its age. So is a key whose caller waited too long for a permit. Keys without a snapshot
+ * are always computed, waiting for their turn as long as it takes.
+ */
+@Extension
+public class LoadShedder {
+
+    private static final Logger LOG = Logger.getLogger(LoadShedder.class.getName());
+
+    static final int QUEUE_LENGTH_THRESHOLD = SystemProperties.getInteger(
+            LoadShedder.class.getName() + ".queueLength", 500);
+    static final long LATENCY_THRESHOLD_MILLIS = SystemProperties.getLong(
+            LoadShedder.class.getName() + ".latencyMillis", 2000L);
+    static final long ACQUIRE_TIMEOUT_MILLIS = SystemProperties.getLong(
+            LoadShedder.class.getName() + ".acquireTimeoutMillis", 5000L);
+    // computations waiting per permit, and for how long, before it counts as overload rather than a burst
+    static final int WAITING_PER_PERMIT = SystemProperties.getInteger(
+            LoadShedder.class.getName() + ".waitingPerPermit", 2);
+    static final long WAITING_SUSTAINED_MILLIS = SystemProperties.getLong(
+            LoadShedder.class.getName() + ".waitingSustainedMillis", 1000L);
+
+    // weight of the latest sample, and the half-life after which an old average counts half
+    private static final double EWMA_ALPHA = 0.2;
+    private static final long EWMA_HALF_LIFE_MILLIS = 30_000;
+
+    // weighed like the cached lists, and bounded by the same configured size
+    private final Cache<BuildNameCache.Key, Snapshot> snapshots = Caffeine.newBuilder()
+            .maximumWeight(OpsboxUtilityConfiguration.get().getCacheMaxWeightKb() * 1024)
+            .<BuildNameCache.Key, Snapshot>weigher((key, snapshot) -> BuildNameCache.weigh(key, snapshot.entries()))
+            .build();
+
+    private volatile Semaphore permits;
+    private volatile int permitCount;
+
+    private double latencyEwmaMillis;
+    private long latencySampledMillis;
+
+    // when the number of waiting computations last rose above the threshold, 0 while it is below
+    private volatile long congestedSinceMillis;
+
+    public LoadShedder() {
+        setMaxConcurrentComputations(OpsboxUtilityConfiguration.get().getMaxConcurrentComputations());
+    }
+
+    @Nonnull
+    public static LoadShedder get() {
+        return ExtensionList.lookupSingleton(LoadShedder.class);
+    }
+
+    /**
+     * Choices of {@code key}: computed by {@code loader} within the concurrency limit, or the last known
+     * snapshot while shedding load. Results with a non-zero {@link Result#staleMillis()} must not be cached.
+     */
+    @Nonnull
+    public Result load(@Nonnull BuildNameCache.Key key, @Nonnull Supplier<List<BuildEntry>> loader) {
+        Snapshot snapshot = snapshots.getIfPresent(key);
+        boolean enabled = OpsboxUtilityConfiguration.get().isLoadSheddingEnabled();
+        if (enabled && snapshot != null && isOverloaded()) {
+            return snapshot.toResult();
+        }
+
+        Semaphore semaphore = permits;
+        if (!enabled || snapshot == null) {
+            semaphore.acquireUninterruptibly();
+        } else if (!tryAcquire(semaphore)) {
+            LOG.fine(() -> "No permit for " + key + " within " + ACQUIRE_TIMEOUT_MILLIS + "ms, serving its snapshot");
+            return snapshot.toResult();
+        }
+        try {
+            long start = System.nanoTime();
+            List<BuildEntry> entries = List.copyOf(loader.get());
+            long now = System.currentTimeMillis();
+            sample(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), now);
+            snapshots.put(key, new Snapshot(entries, now));
+            return new Result(entries, 0);
+        } finally {
+            semaphore.release();
+        }
+    }
+
+    private static boolean tryAcquire(Semaphore semaphore) {
+        try {
+            return semaphore.tryAcquire(ACQUIRE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Whether choices with a snapshot are currently answered from it.
+     */
+    public boolean isOverloaded() {
+        if (isCongested(System.currentTimeMillis()) || getLatencyEwmaMillis() > LATENCY_THRESHOLD_MILLIS) {
+            return true;
+        }
+        Jenkins jenkins = Jenkins.getInstanceOrNull();
+        return jenkins != null && jenkins.getQueue().getApproximateItemsQuickly().size() > QUEUE_LENGTH_THRESHOLD;
+    }
+
+    /**
+     * Whether more than {@link #WAITING_PER_PERMIT} computations per permit have been waiting for at least
+     * {@link #WAITING_SUSTAINED_MILLIS}. A short burst of page renders only queues up briefly.
+     */
+    boolean isCongested(long nowMillis) {
+        Semaphore semaphore = permits;
+        if (semaphore.getQueueLength() <= (long) permitCount * WAITING_PER_PERMIT) {
+            congestedSinceMillis = 0;
+            return false;
+        }
+        long since = congestedSinceMillis;
+        if (since == 0) {
+            congestedSinceMillis = nowMillis;
+            return false;
+        }
+        return nowMillis - since >= WAITING_SUSTAINED_MILLIS;
+    }
+
+    synchronized void sample(long latencyMillis, long nowMillis) {
+        latencyEwmaMillis = decayed(nowMillis) * (1 - EWMA_ALPHA) + latencyMillis * EWMA_ALPHA;
+        latencySampledMillis = nowMillis;
+    }
+
+    /**
+     * Recent computation latency. It decays while nothing is computed, so shedding cannot keep itself on
+     * forever by preventing new samples.
+     */
+    public synchronized double getLatencyEwmaMillis() {
+        return decayed(System.currentTimeMillis());
+    }
+
+    private double decayed(long nowMillis) {
+        long elapsed = Math.max(0, nowMillis - latencySampledMillis);
+        return latencyEwmaMillis * Math.pow(0.5, (double) elapsed / EWMA_HALF_LIFE_MILLIS);
+    }
+
+    /**
+     * Applies a new concurrency limit. Computations holding a permit of the previous limit finish on it.
+     */
+    public synchronized void setMaxConcurrentComputations(int maxConcurrentComputations) {
+        int count = Math.max(1, maxConcurrentComputations);
+        if (permits == null || count != permitCount) {
+            permitCount = count;
+            permits = new Semaphore(count, true);
+        }
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * Computations currently waiting for a permit.
+     */
+    public int getWaiting() {
+        return permits.getQueueLength();
+    }
+
+    /**
+     * Drops the snapshots computed from the given upstream job, e.g. once it is deleted.
+     */
+    public void forget(@Nonnull String jobFullName) {
+        snapshots.asMap().keySet().removeIf(key -> key.jobFullName().equals(jobFullName));
+    }
+
+    public void forgetAll() {
+        snapshots.invalidateAll();
+    }
+
+    public void setMaximumWeightBytes(long maximumWeightBytes) {
+        snapshots.policy().eviction().ifPresent(eviction -> eviction.setMaximum(maximumWeightBytes));
+    }
+
+    /**
+     * Last known lists currently kept.
+     */
+    public long getSnapshotCount() {
+        return snapshots.estimatedSize();
+    }
+
+    public long getSnapshotWeightedSizeBytes() {
+        return snapshots.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L);
+    }
+
+    @CheckForNull
+    Snapshot getSnapshot(@Nonnull BuildNameCache.Key key) {
+        return snapshots.getIfPresent(key);
+    }
+
+    record Snapshot(@Nonnull List<BuildEntry> entries, long computedMillis) {
+
+        Result toResult() {
+            // a snapshot computed within the same millisecond is still marked as stale
+            return new Result(entries, Math.max(1, System.currentTimeMillis() - computedMillis));
+        }
+    }
+
+    /**
+     * @param staleMillis age of the snapshot served instead of computing, {@code 0} for a fresh computation
+     */
+    public record Result(@Nonnull List<BuildEntry> entries, long staleMillis) {
+
+        public boolean isStale() {
+            return staleMillis > 0;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package io.jenkinsci.plugins.opsbox.utility.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.XmlFile;
+import hudson.model.Item;
+import hudson.model.ItemGroup;
+import hudson.model.Saveable;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.SaveableListener;
+import io.jenkinsci.plugins.opsbox.utility.OpsboxUtilityConfiguration;
+import jenkins.model.Jenkins;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+
+/**
+ * Short-lived cache of {@link Item#READ} decisions of the current user on upstream jobs.
+ * <p>
+ * With matrix or role based authorization over deep folder trees every ACL evaluation walks the
+ * folder hierarchy, and the parameters page asks the same question once per parameter and render.
+ * Decisions are kept for {@link OpsboxUtilityConfiguration#getPermissionCacheTtlSeconds()} seconds
+ * and dropped as soon as the global or an item level security configuration is saved.
+ */
+@Extension
+public class PermissionCache {
+
+    private static final long MAX_ENTRIES = 10_000;
+
+    private final Cache<Key, Boolean> cache;
+
+    public PermissionCache() {
+        this(OpsboxUtilityConfiguration.get().getPermissionCacheTtlSeconds());
+    }
+
+    PermissionCache(long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(Math.max(ttlSeconds, 1)))
+                .maximumSize(MAX_ENTRIES)
+                .build();
+    }
+
+    @Nonnull
+    public static PermissionCache get() {
+        return ExtensionList.lookupSingleton(PermissionCache.class);
+    }
+
+    /**
+     * Whether the current user may read the given item, answered from the cache when possible.
+     */
+    public boolean canRead(@Nonnull Item item) {
+        if (OpsboxUtilityConfiguration.get().getPermissionCacheTtlSeconds() <= 0) {
+            return item.hasPermission(Item.READ);
+        }
+        Key key = new Key(Jenkins.getAuthentication2().getName(), item.getFullName());
+        return cache.get(key, k -> item.hasPermission(Item.READ));
+    }
+
+    public void setTtlSeconds(long ttlSeconds) {
+        cache.policy().expireAfterWrite()
+                .ifPresent(expiration -> expiration.setExpiresAfter(Duration.ofSeconds(Math.max(ttlSeconds, 1))));
+        cache.invalidateAll();
+    }
+
+    public void invalidate(@Nonnull String itemFullName) {
+        cache.asMap().keySet().removeIf(key -> key.itemFullName().equals(itemFullName));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    record Key(String userId, String itemFullName) {
+    }
+
+    /**
+     * Global security and role strategies are persisted with {@code config.xml} of Jenkins itself,
+     * folder level authorization with the folder. Both can change what any nested job allows.
+     */
+    @Extension
+    public static class SecurityChangeListener extends SaveableListener {
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            if (o instanceof Jenkins || o instanceof ItemGroup) {
+                PermissionCache.get().invalidateAll();
+            } else if (o instanceof Item item) {
+                PermissionCache.get().invalidate(item.getFullName());
+            }
+        }
+    }
+
+    @Extension
+    public static class ItemChangeListener extends ItemListener {
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            PermissionCache.get().invalidateAll();
+        }
+    }
+}
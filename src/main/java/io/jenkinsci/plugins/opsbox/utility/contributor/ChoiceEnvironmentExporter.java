@@ -0,0 +1,26 @@
+package io.jenkinsci.plugins.opsbox.utility.contributor;
+
+import hudson.Extension;
+import hudson.model.ChoiceParameterDefinition;
+import hudson.model.ParameterDefinition;
+
+import javax.annotation.Nonnull;
+import java.util.Map;
+
+/**
+ * The choices of Choice Parameters, one per line, as {@code PARAMS__<name>__CHOICES}.
+ */
+@Extension
+public class ChoiceEnvironmentExporter extends ParameterEnvironmentExporter {
+
+    @Override
+    protected Class<? extends ParameterDefinition> getDefinitionType() {
+        return ChoiceParameterDefinition.class;
+    }
+
+    @Override
+    public void exportDefinition(@Nonnull ParameterDefinition definition, @Nonnull Map<String, String> env) {
+        ChoiceParameterDefinition choiceParamDef = (ChoiceParameterDefinition) definition;
+        env.put(variableName(choiceParamDef.getName(), "CHOICES"), String.join("\n", choiceParamDef.getChoices()));
+    }
+}
@@ -0,0 +1,28 @@
+package io.jenkinsci.plugins.opsbox.utility.contributor;
+
+import hudson.Extension;
+import hudson.model.ParameterDefinition;
+import io.jenkinsci.plugins.opsbox.utility.parameter.JobBuildNameParameterDefinition;
+
+import javax.annotation.Nonnull;
+import java.util.Map;
+
+/**
+ * The upstream job of Job Build Name Parameters as {@code PARAMS__<name>__JOB_NAME}.
+ */
+@Extension
+public class JobBuildNameEnvironmentExporter extends ParameterEnvironmentExporter {
+
+    @Override
+    protected Class<? extends ParameterDefinition> getDefinitionType() {
+        return JobBuildNameParameterDefinition.class;
+    }
+
+    @Override
+    public void exportDefinition(@Nonnull ParameterDefinition definition, @Nonnull Map<String, String> env) {
+        String jobName = ((JobBuildNameParameterDefinition) definition).getJobName();
+        if (jobName != null) {
+            env.put(variableName(definition.getName(), "JOB_NAME"), jobName);
+        }
+    }
+}
@@ -1,31 +1,57 @@
 package io.jenkinsci.plugins.opsbox.utility.contributor;
 
 import com.google.common.collect.Maps;
-import com.syhuang.hudson.plugins.listgitbranchesparameter.ListGitBranchesParameterDefinition;
-import com.syhuang.hudson.plugins.listgitbranchesparameter.ListGitBranchesParameterValue;
 import hudson.EnvVars;
 import hudson.Extension;
+import hudson.ExtensionListListener;
 import hudson.model.*;
+import io.jenkinsci.plugins.opsbox.utility.jfr.EnvironmentEvent;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 import java.util.logging.Logger;
 
+/**
+ * Adds {@code PARAMS__<name>__...} variables for the parameters of a build, as provided by the
+ * {@link ParameterEnvironmentExporter}s of their types. Named after the List Git Branches Parameter,
+ * the first type supported.
+ */
 @Extension
 public class ListGitBranchesEnvironmentContributor extends EnvironmentContributor {
 
     private static final Logger LOGGER = Logger.getLogger(ListGitBranchesEnvironmentContributor.class.getName());
+
+    // concrete parameter class -> exporters, computed once per class
+    private final Map<Class<?>, List<ParameterEnvironmentExporter>> definitionExporters = new ConcurrentHashMap<>();
+    private final Map<Class<?>, List<ParameterEnvironmentExporter>> valueExporters = new ConcurrentHashMap<>();
+    private final AtomicBoolean watchingExporters = new AtomicBoolean();
+
     @Override
     public void buildEnvironmentFor(Run run, EnvVars envVars, TaskListener listener) {
-        Map<String, String> configs = getParametersConfigs(run);
+        EnvironmentEvent event = new EnvironmentEvent();
+        event.begin();
+        event.cacheHit = true;
+
+        Map<String, String> configs = getParametersConfigs(run, event);
         if (!configs.isEmpty()) {
             envVars.putAll(configs);
         }
 
-        Map<String, String> values = getParametersValue(run);
+        Map<String, String> values = getParametersValue(run, event);
         if (!values.isEmpty()) {
             envVars.putAll(values);
         }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.jobName = run.getParent().getFullName();
+            event.buildNumber = run.getNumber();
+            event.variableCount = configs.size() + values.size();
+            event.commit();
+        }
     }
 
     public static String cleanBranchName(String branch) {
@@ -42,22 +68,22 @@ public class ListGitBranchesEnvironmentContributor extends EnvironmentContributo
         return branch;
     }
 
-    private Map<String, String> getParametersValue(Run<?, ?> run) {
+    private Map<String, String> getParametersValue(Run<?, ?> run, EnvironmentEvent event) {
         // 获取参数化构建中的参数值
         Map<String, String> params = Maps.newHashMap();
 
         ParametersAction parametersAction = run.getAction(ParametersAction.class);
         if (parametersAction != null) {
             for (ParameterValue param : parametersAction.getParameters()) {
-                if (param instanceof ListGitBranchesParameterValue) {
-                    params.put(param.getName(), cleanBranchName(param.getValue().toString()));
+                for (ParameterEnvironmentExporter exporter : exportersOf(valueExporters, param.getClass(), ParameterEnvironmentExporter::forValue, event)) {
+                    exporter.exportValue(param, params);
                 }
             }
         }
         return params;
     }
 
-    private Map<String, String> getParametersConfigs(Run<?, ?> run) {
+    private Map<String, String> getParametersConfigs(Run<?, ?> run, EnvironmentEvent event) {
         Map<String, String> params = Maps.newHashMap();
 
         Job<?, ?> job = run.getParent();
@@ -75,23 +101,32 @@ public class ListGitBranchesEnvironmentContributor extends EnvironmentContributo
         }
 
         for (ParameterDefinition pd : parameterDefinitions) {
-            if (pd instanceof ListGitBranchesParameterDefinition gitParamDef) {
-
-                String remoteUrl = gitParamDef.getRemoteURL();
-                String credentialsId = gitParamDef.getCredentialsId();
-
-                LOGGER.fine("Found Git remote URL: " + remoteUrl);
-
-                // 只有非null值才添加到环境变量中
-                if (remoteUrl != null) {
-                    params.put(String.format("PARAMS__%s__REMOTE_URL", gitParamDef.getName()), remoteUrl);
-                }
-                if (credentialsId != null && !credentialsId.trim().isEmpty()) {
-                    params.put(String.format("PARAMS__%s__CREDENTIALS_ID", gitParamDef.getName()), credentialsId);
-                }
+            for (ParameterEnvironmentExporter exporter : exportersOf(definitionExporters, pd.getClass(), ParameterEnvironmentExporter::forDefinition, event)) {
+                exporter.exportDefinition(pd, params);
             }
         }
 
         return params;
     }
+
+    private List<ParameterEnvironmentExporter> exportersOf(Map<Class<?>, List<ParameterEnvironmentExporter>> cache, Class<?> type,
+                                                           Function<Class<?>, List<ParameterEnvironmentExporter>> lookup,
+                                                           EnvironmentEvent event) {
+        if (watchingExporters.compareAndSet(false, true)) {
+            // exporters may come and go with dynamically loaded plugins
+            ParameterEnvironmentExporter.all().addListener(new ExtensionListListener() {
+                @Override
+                public void onChange() {
+                    definitionExporters.clear();
+                    valueExporters.clear();
+                }
+            });
+        }
+        List<ParameterEnvironmentExporter> exporters = cache.get(type);
+        if (exporters == null) {
+            event.cacheHit = false;
+            exporters = cache.computeIfAbsent(type, lookup);
+        }
+        return exporters;
+    }
 }
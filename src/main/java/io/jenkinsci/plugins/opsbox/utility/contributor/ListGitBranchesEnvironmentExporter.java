@@ -0,0 +1,56 @@
+package io.jenkinsci.plugins.opsbox.utility.contributor;
+
+import com.syhuang.hudson.plugins.listgitbranchesparameter.ListGitBranchesParameterDefinition;
+import com.syhuang.hudson.plugins.listgitbranchesparameter.ListGitBranchesParameterValue;
+import hudson.Extension;
+import hudson.model.ParameterDefinition;
+import hudson.model.ParameterValue;
+
+import javax.annotation.Nonnull;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Remote URL and credentials of List Git Branches Parameters, and the branch name without its
+ * {@code refs/heads/} or {@code refs/tags/} prefix.
+ */
+@Extension
+public class ListGitBranchesEnvironmentExporter extends ParameterEnvironmentExporter {
+
+    private static final Logger LOGGER = Logger.getLogger(ListGitBranchesEnvironmentExporter.class.getName());
+
+    @Override
+    protected Class<? extends ParameterDefinition> getDefinitionType() {
+        return ListGitBranchesParameterDefinition.class;
+    }
+
+    @Override
+    protected Class<? extends ParameterValue> getValueType() {
+        return ListGitBranchesParameterValue.class;
+    }
+
+    @Override
+    public void exportDefinition(@Nonnull ParameterDefinition definition, @Nonnull Map<String, String> env) {
+        ListGitBranchesParameterDefinition gitParamDef = (ListGitBranchesParameterDefinition) definition;
+        String remoteUrl = gitParamDef.getRemoteURL();
+        String credentialsId = gitParamDef.getCredentialsId();
+
+        LOGGER.fine("Found Git remote URL: " + remoteUrl);
+
+        // 只有非null值才添加到环境变量中
+        if (remoteUrl != null) {
+            env.put(variableName(gitParamDef.getName(), "REMOTE_URL"), remoteUrl);
+        }
+        if (credentialsId != null && !credentialsId.trim().isEmpty()) {
+            env.put(variableName(gitParamDef.getName(), "CREDENTIALS_ID"), credentialsId);
+        }
+    }
+
+    @Override
+    public void exportValue(@Nonnull ParameterValue value, @Nonnull Map<String, String> env) {
+        Object branch = value.getValue();
+        if (branch != null) {
+            env.put(value.getName(), ListGitBranchesEnvironmentContributor.cleanBranchName(branch.toString()));
+        }
+    }
+}
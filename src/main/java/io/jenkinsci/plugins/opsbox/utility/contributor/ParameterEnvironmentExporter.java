@@ -0,0 +1,93 @@
+package io.jenkinsci.plugins.opsbox.utility.contributor;
+
+import hudson.ExtensionList;
+import hudson.ExtensionPoint;
+import hudson.model.ParameterDefinition;
+import hudson.model.ParameterValue;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Exports metadata of one parameter type as {@code PARAMS__<name>__<KEY>} environment variables,
+ * and optionally the value itself, for {@link ListGitBranchesEnvironmentContributor}.
+ * <p>
+ * Exporters declare the definition and value classes they handle. The exporters matching a concrete
+ * parameter class are computed once per class, so a build only pays for the exporters of the parameter
+ * types it actually has.
+ */
+public abstract class ParameterEnvironmentExporter implements ExtensionPoint {
+
+    /**
+     * Definitions handled by {@link #exportDefinition}, including subclasses, or {@code null} for none.
+     */
+    @CheckForNull
+    protected Class<? extends ParameterDefinition> getDefinitionType() {
+        return null;
+    }
+
+    /**
+     * Values handled by {@link #exportValue}, including subclasses, or {@code null} for none.
+     */
+    @CheckForNull
+    protected Class<? extends ParameterValue> getValueType() {
+        return null;
+    }
+
+    /**
+     * Adds the variables describing {@code definition}, an instance of {@link #getDefinitionType()}.
+     */
+    public void exportDefinition(@Nonnull ParameterDefinition definition, @Nonnull Map<String, String> env) {
+    }
+
+    /**
+     * Adds the variables derived from {@code value}, an instance of {@link #getValueType()}.
+     */
+    public void exportValue(@Nonnull ParameterValue value, @Nonnull Map<String, String> env) {
+    }
+
+    /**
+     * {@code PARAMS__<parameterName>__<key>}.
+     */
+    @Nonnull
+    public static String variableName(@Nonnull String parameterName, @Nonnull String key) {
+        return String.format("PARAMS__%s__%s", parameterName, key);
+    }
+
+    @Nonnull
+    public static ExtensionList<ParameterEnvironmentExporter> all() {
+        return ExtensionList.lookup(ParameterEnvironmentExporter.class);
+    }
+
+    /**
+     * Exporters of {@code definitionType}, in extension order.
+     */
+    @Nonnull
+    static List<ParameterEnvironmentExporter> forDefinition(@Nonnull Class<?> definitionType) {
+        return matching(definitionType, ParameterEnvironmentExporter::getDefinitionType);
+    }
+
+    /**
+     * Exporters of {@code valueType}, in extension order.
+     */
+    @Nonnull
+    static List<ParameterEnvironmentExporter> forValue(@Nonnull Class<?> valueType) {
+        return matching(valueType, ParameterEnvironmentExporter::getValueType);
+    }
+
+    private static List<ParameterEnvironmentExporter> matching(Class<?> type,
+                                                               Function<ParameterEnvironmentExporter, Class<?>> handled) {
+        List<ParameterEnvironmentExporter> matching = new ArrayList<>();
+        for (ParameterEnvironmentExporter exporter : all()) {
+            Class<?> handledType = handled.apply(exporter);
+            if (handledType != null && handledType.isAssignableFrom(type)) {
+                matching.add(exporter);
+            }
+        }
+        return List.copyOf(matching);
+    }
+}
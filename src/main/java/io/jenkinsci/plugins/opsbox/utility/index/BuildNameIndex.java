@@ -0,0 +1,566 @@
+package io.jenkinsci.plugins.opsbox.utility.index;
+
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.model.Job;
+import hudson.model.Run;
+import io.jenkinsci.plugins.opsbox.utility.cache.BuildNameCache;
+import io.jenkinsci.plugins.opsbox.utility.parameter.ArtifactSummary;
+import io.jenkinsci.plugins.opsbox.utility.parameter.BuildEntry;
+import io.jenkinsci.plugins.opsbox.utility.parameter.BuildSelection;
+import io.jenkinsci.plugins.opsbox.utility.parameter.ResultClass;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The most recent completed builds of the upstream jobs referenced by Job Build Name Parameters, so that
+ * choices can be computed without walking the build history. Entries of the initial scan carry their
+ * {@link io.jenkinsci.plugins.opsbox.utility.parameter.ArtifactSummary}, listed here in the background for
+ * builds that completed without a recorded one; later changes only use recorded summaries.
+ * <p>
+ * Builds are kept in one short list per {@link ResultClass} and keep-forever status, newest first, so that
+ * any {@link BuildSelection} is answered by merging the lists it accepts.
+ * <p>
+ * Only jobs that have been {@link #index indexed} are tracked; {@link #recentBuilds} answers
+ * {@code null} for any other job and callers fall back to scanning the history themselves.
+ * Build changes are applied in batches by {@link IndexUpdateQueue}, each followed by an invalidation of
+ * {@link BuildNameCache} so that no choice list computed from the previous state survives.
+ */
+@Extension
+public class BuildNameIndex {
+
+    /**
+     * Builds kept per job and list. Requests for more fall back to a history scan.
+     */
+    public static final int DEPTH = 100;
+
+    /**
+     * Builds examined by the initial scan of a job. Lists still short of {@link #DEPTH} by then,
+     * typically the keep-forever ones, only cover the examined part of the history.
+     */
+    static final int SCAN_LIMIT = SystemProperties.getInteger(BuildNameIndex.class.getName() + ".scanLimit", 5 * DEPTH);
+
+    /**
+     * Most recent builds checked for being still in progress when a snapshot is written.
+     */
+    private static final int RECONCILE_RUNNING_LIMIT = 20;
+
+    /**
+     * Margin for the clock of the controller that wrote a snapshot, e.g. another controller sharing
+     * {@code JENKINS_HOME}, running ahead of the file system clock.
+     */
+    static final long CLOCK_SKEW_MILLIS = SystemProperties.getLong(
+            BuildNameIndex.class.getName() + ".clockSkewMillis", 5 * 60 * 1000L);
+
+    private final Map<String, JobBuilds> jobs = new ConcurrentHashMap<>();
+    private final AtomicLong modCount = new AtomicLong();
+
+    @Nonnull
+    public static BuildNameIndex get() {
+        return ExtensionList.lookupSingleton(BuildNameIndex.class);
+    }
+
+    /**
+     * Up to {@code limit} builds of the given job eligible under {@code selection}, newest first, or
+     * {@code null} if the job is not indexed or the index does not hold enough of its history to answer.
+     * Changes still queued on {@link IndexUpdateQueue} are not seen; callers flush the job beforehand, outside
+     * of any {@link BuildNameCache} computation, since applying them invalidates the cache.
+     */
+    @CheckForNull
+    public List<BuildEntry> recentBuilds(@Nonnull String jobFullName, @Nonnull BuildSelection selection, int limit) {
+        JobBuilds builds = jobs.get(jobFullName);
+        return builds == null ? null : builds.recent(selection, limit);
+    }
+
+    public boolean isIndexed(@Nonnull String jobFullName) {
+        return jobs.containsKey(jobFullName);
+    }
+
+    public int size() {
+        return jobs.size();
+    }
+
+    /**
+     * Scans the history of {@code job} and starts tracking it. Does nothing if it is tracked already.
+     * The scan loads builds and lists their artifacts without holding the lock of the job, so readers and
+     * {@link IndexUpdateQueue} are not held up; changes applied meanwhile are replayed on top of it.
+     */
+    public void index(@Nonnull Job<?, ?> job) {
+        JobBuilds builds = new JobBuilds();
+        if (jobs.putIfAbsent(job.getFullName(), builds) != null) {
+            return;
+        }
+        // not published, so no lock is needed while filling it
+        JobBuilds scanned = new JobBuilds();
+        int examined = 0;
+        int oldest = 0;
+        boolean exhausted = true;
+        for (Run<?, ?> run : job.getBuilds()) {
+            if (examined >= SCAN_LIMIT) {
+                exhausted = false;
+                break;
+            }
+            examined++;
+            oldest = run.getNumber();
+            Bucket bucket = scanned.bucketOf(run);
+            if (bucket == null) {
+                continue;
+            }
+            if (bucket.entries.size() < DEPTH) {
+                bucket.entries.add(BuildEntry.withArtifacts(run));
+            } else if (bucket.floor == 0) {
+                // full: every build of this list numbered above this one is held
+                bucket.floor = run.getNumber() + 1;
+            }
+        }
+        if (!exhausted) {
+            for (Bucket bucket : scanned.buckets) {
+                if (bucket.floor == 0) {
+                    bucket.floor = oldest;
+                }
+            }
+        }
+        synchronized (builds) {
+            builds.load(scanned);
+        }
+        changed(job.getFullName());
+    }
+
+    /**
+     * Applies a batch of coalesced changes to the builds of one job, taking its lock once. Each build is
+     * either upserted, re-reading its display name, result and keep-forever status, or deleted.
+     *
+     * @return whether the tracked builds changed
+     */
+    boolean apply(@Nonnull String jobFullName, @Nonnull Collection<Run<?, ?>> upserts,
+                  @Nonnull Collection<Integer> deletions) {
+        JobBuilds builds = jobs.get(jobFullName);
+        if (builds == null) {
+            return false;
+        }
+        boolean changed = false;
+        synchronized (builds) {
+            if (!builds.loaded) {
+                // the initial scan is still running and replays these once it is done
+                builds.defer(upserts, deletions);
+                return false;
+            }
+            for (int number : deletions) {
+                changed |= builds.delete(number);
+            }
+            for (Run<?, ?> run : upserts) {
+                changed |= builds.upsert(run);
+            }
+            if (builds.isTooSparse()) {
+                // too much of the tracked window is gone, start over on the next lookup
+                jobs.remove(jobFullName, builds);
+            }
+        }
+        if (changed) {
+            modCount.incrementAndGet();
+        }
+        return changed;
+    }
+
+    /**
+     * Brings a job loaded from an {@link IndexSnapshot} up to date: drops deleted builds, reloads builds
+     * whose record changed after {@code snapshotMillis}, less {@link #CLOCK_SKEW_MILLIS}, and adds the builds numbered {@code from} or above.
+     */
+    void reconcile(@Nonnull Job<?, ?> job, long snapshotMillis, int from) {
+        JobBuilds builds = jobs.get(job.getFullName());
+        if (builds == null) {
+            index(job);
+            return;
+        }
+        List<Integer> stale = new ArrayList<>();
+        synchronized (builds) {
+            for (Bucket bucket : builds.buckets) {
+                for (BuildEntry entry : bucket.entries) {
+                    File record = new File(new File(job.getBuildDir(), String.valueOf(entry.number())), "build.xml");
+                    // 0 when deleted
+                    long lastModified = record.lastModified();
+                    if (lastModified == 0 || lastModified >= snapshotMillis - CLOCK_SKEW_MILLIS) {
+                        stale.add(entry.number());
+                    }
+                }
+            }
+        }
+        List<Run<?, ?>> upserts = new ArrayList<>();
+        List<Integer> deletions = new ArrayList<>();
+        for (int number : stale) {
+            Run<?, ?> run = job.getBuildByNumber(number);
+            if (run == null) {
+                deletions.add(number);
+            } else {
+                upserts.add(run);
+            }
+        }
+        for (Run<?, ?> run : job.getBuilds()) {
+            if (run.getNumber() < from) {
+                break;
+            }
+            upserts.add(run);
+        }
+        apply(job.getFullName(), upserts, deletions);
+        changed(job.getFullName());
+    }
+
+    void forget(@Nonnull String jobFullName) {
+        if (jobs.remove(jobFullName) != null) {
+            modCount.incrementAndGet();
+        }
+    }
+
+    void clear() {
+        jobs.clear();
+        modCount.incrementAndGet();
+    }
+
+    /**
+     * Incremented on every change, so that {@link IndexSnapshot} can skip writing an unchanged index.
+     */
+    long getModCount() {
+        return modCount.get();
+    }
+
+    private void changed(String jobFullName) {
+        modCount.incrementAndGet();
+        BuildNameCache.get().invalidate(jobFullName);
+    }
+
+    /**
+     * Writes the loaded jobs, each with the build number from which {@link #reconcile} has to look for
+     * builds completed after the snapshot.
+     */
+    void writeSnapshot(@Nonnull DataOutputStream out) throws IOException {
+        List<Map.Entry<String, JobBuilds>> loaded = new ArrayList<>();
+        List<Integer> reconcileFrom = new ArrayList<>();
+        for (Map.Entry<String, JobBuilds> job : jobs.entrySet()) {
+            Job<?, ?> item = Jenkins.get().getItemByFullName(job.getKey(), Job.class);
+            if (item == null) {
+                continue;
+            }
+            // before reading the entries, so that builds completing meanwhile are reconciled
+            int from = reconcileFrom(item);
+            synchronized (job.getValue()) {
+                if (job.getValue().loaded) {
+                    loaded.add(job);
+                    reconcileFrom.add(from);
+                }
+            }
+        }
+        out.writeInt(loaded.size());
+        out.writeInt(ResultClass.values().length * 2);
+        for (int i = 0; i < loaded.size(); i++) {
+            out.writeUTF(loaded.get(i).getKey());
+            out.writeInt(reconcileFrom.get(i));
+            JobBuilds builds = loaded.get(i).getValue();
+            synchronized (builds) {
+                for (Bucket bucket : builds.buckets) {
+                    out.writeInt(bucket.floor);
+                    out.writeInt(bucket.entries.size());
+                    for (BuildEntry entry : bucket.entries) {
+                        writeEntry(out, entry);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Loads the jobs of a snapshot written by {@link #writeSnapshot}, leaving jobs already tracked alone.
+     *
+     * @return the build number to {@link #reconcile} each loaded job from
+     */
+    @Nonnull
+    Map<String, Integer> readSnapshot(@Nonnull DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (in.readInt() != ResultClass.values().length * 2) {
+            throw new IOException("Snapshot was written for other result classes");
+        }
+        Map<String, Integer> reconcileFrom = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            String jobFullName = in.readUTF();
+            int from = in.readInt();
+            JobBuilds builds = new JobBuilds();
+            for (Bucket bucket : builds.buckets) {
+                bucket.floor = in.readInt();
+                int size = in.readInt();
+                for (int j = 0; j < size; j++) {
+                    bucket.entries.add(readEntry(in));
+                }
+            }
+            builds.loaded = true;
+            if (jobs.putIfAbsent(jobFullName, builds) == null) {
+                reconcileFrom.put(jobFullName, from);
+            }
+        }
+        modCount.incrementAndGet();
+        return reconcileFrom;
+    }
+
+    /**
+     * The oldest build of {@code job} still running, or its next build number: every build completing
+     * after this call is numbered at least this.
+     */
+    private static int reconcileFrom(@Nonnull Job<?, ?> job) {
+        int from = job.getNextBuildNumber();
+        for (Run<?, ?> run : job.getBuilds().limit(RECONCILE_RUNNING_LIMIT)) {
+            if (run.isBuilding()) {
+                from = Math.min(from, run.getNumber());
+            }
+        }
+        return from;
+    }
+
+    private static void writeEntry(DataOutputStream out, BuildEntry entry) throws IOException {
+        out.writeInt(entry.number());
+        out.writeUTF(entry.displayName());
+        ArtifactSummary artifacts = entry.artifacts();
+        out.writeBoolean(artifacts != null);
+        if (artifacts != null) {
+            out.writeBoolean(artifacts.truncated());
+            out.writeInt(artifacts.paths().size());
+            for (String path : artifacts.paths()) {
+                out.writeUTF(path);
+            }
+        }
+    }
+
+    private static BuildEntry readEntry(DataInputStream in) throws IOException {
+        int number = in.readInt();
+        String displayName = in.readUTF();
+        ArtifactSummary artifacts = null;
+        if (in.readBoolean()) {
+            boolean truncated = in.readBoolean();
+            int size = in.readInt();
+            List<String> paths = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                paths.add(in.readUTF());
+            }
+            artifacts = ArtifactSummary.of(paths, truncated);
+        }
+        return BuildEntry.of(number, displayName, artifacts);
+    }
+
+    static boolean isEligible(Run<?, ?> run) {
+        return !run.isBuilding() && ResultClass.of(run.getResult()) != null;
+    }
+
+    /**
+     * Tracked builds of one job, one {@link Bucket} per result class and keep-forever status.
+     * Guarded by its own monitor.
+     */
+    private static final class JobBuilds {
+        private final Bucket[] buckets = new Bucket[ResultClass.values().length * 2];
+        // false until the initial history scan is done
+        private boolean loaded;
+        // changes applied while the initial scan is running
+        private List<Run<?, ?>> deferredUpserts = new ArrayList<>();
+        private List<Integer> deferredDeletions = new ArrayList<>();
+
+        JobBuilds() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new Bucket();
+            }
+        }
+
+        void defer(Collection<Run<?, ?>> upserts, Collection<Integer> deletions) {
+            deferredUpserts.addAll(upserts);
+            deferredDeletions.addAll(deletions);
+        }
+
+        /**
+         * Takes over the lists of a finished scan and replays the changes deferred while it ran.
+         */
+        void load(JobBuilds scanned) {
+            System.arraycopy(scanned.buckets, 0, buckets, 0, buckets.length);
+            for (int number : deferredDeletions) {
+                delete(number);
+            }
+            for (Run<?, ?> run : deferredUpserts) {
+                upsert(run);
+            }
+            deferredUpserts = null;
+            deferredDeletions = null;
+            loaded = true;
+        }
+
+        @CheckForNull
+        Bucket bucketOf(Run<?, ?> run) {
+            if (run.isBuilding()) {
+                return null;
+            }
+            ResultClass result = ResultClass.of(run.getResult());
+            return result == null ? null : bucket(result, run.isKeepLog());
+        }
+
+        Bucket bucket(ResultClass result, boolean kept) {
+            return buckets[result.ordinal() * 2 + (kept ? 1 : 0)];
+        }
+
+        /**
+         * Moves the build to the list of its current result and keep-forever status, or drops it if it is
+         * no longer eligible. Only the recorded artifact summary is used, since a reader may be applying the
+         * change; a build without one keeps the artifacts listed when it was indexed.
+         */
+        boolean upsert(Run<?, ?> run) {
+            Bucket target = bucketOf(run);
+            BuildEntry entry = target == null ? null : BuildEntry.of(run);
+            if (entry != null && entry.artifacts() == null) {
+                BuildEntry indexed = find(run.getNumber());
+                if (indexed != null && indexed.artifacts() != null) {
+                    entry = BuildEntry.of(entry.number(), entry.displayName(), indexed.artifacts());
+                }
+            }
+            if (target != null && entry.equals(target.find(run.getNumber()))) {
+                return false;
+            }
+            boolean changed = delete(run.getNumber());
+            if (target != null) {
+                changed |= target.insert(entry);
+            }
+            return changed;
+        }
+
+        @CheckForNull
+        BuildEntry find(int number) {
+            for (Bucket bucket : buckets) {
+                BuildEntry entry = bucket.find(number);
+                if (entry != null) {
+                    return entry;
+                }
+            }
+            return null;
+        }
+
+        boolean delete(int number) {
+            boolean changed = false;
+            for (Bucket bucket : buckets) {
+                changed |= bucket.remove(number);
+            }
+            return changed;
+        }
+
+        boolean isTooSparse() {
+            for (Bucket bucket : buckets) {
+                if (bucket.shrunk) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        synchronized List<BuildEntry> recent(BuildSelection selection, int limit) {
+            if (!loaded) {
+                return null;
+            }
+            if (limit <= 0) {
+                return new ArrayList<>();
+            }
+            List<Bucket> accepted = new ArrayList<>();
+            int floor = 0;
+            int held = 0;
+            for (ResultClass result : selection.results()) {
+                accepted.add(bucket(result, true));
+                if (!selection.keptOnly()) {
+                    accepted.add(bucket(result, false));
+                }
+            }
+            for (Bucket bucket : accepted) {
+                floor = Math.max(floor, bucket.floor);
+                held += bucket.entries.size();
+            }
+
+            // k-way merge of the newest first lists; only builds above every floor are known to be complete
+            List<BuildEntry> merged = new ArrayList<>(Math.min(limit, held));
+            int[] positions = new int[accepted.size()];
+            while (merged.size() < limit) {
+                int newest = -1;
+                for (int i = 0; i < accepted.size(); i++) {
+                    List<BuildEntry> entries = accepted.get(i).entries;
+                    if (positions[i] < entries.size() && (newest < 0
+                            || entries.get(positions[i]).number() > accepted.get(newest).entries.get(positions[newest]).number())) {
+                        newest = i;
+                    }
+                }
+                if (newest < 0) {
+                    break;
+                }
+                BuildEntry entry = accepted.get(newest).entries.get(positions[newest]++);
+                if (entry.number() < floor) {
+                    break;
+                }
+                merged.add(entry);
+            }
+            return merged.size() < limit && floor > 0 ? null : merged;
+        }
+    }
+
+    /**
+     * Builds of one result class and keep-forever status, newest first. Holds every such build numbered
+     * {@code floor} or above; {@code floor} is 0 when the list covers the whole history.
+     */
+    private static final class Bucket {
+        private final List<BuildEntry> entries = new ArrayList<>();
+        private int floor;
+        // whether deletions took a partial list below half of DEPTH
+        private boolean shrunk;
+
+        @CheckForNull
+        BuildEntry find(int number) {
+            for (BuildEntry entry : entries) {
+                if (entry.number() == number) {
+                    return entry;
+                }
+            }
+            return null;
+        }
+
+        boolean insert(BuildEntry entry) {
+            if (entry.number() < floor) {
+                // outside the tracked window
+                return false;
+            }
+            int i = 0;
+            while (i < entries.size() && entries.get(i).number() > entry.number()) {
+                i++;
+            }
+            if (i < entries.size() && entries.get(i).number() == entry.number()) {
+                entries.set(i, entry);
+                return true;
+            }
+            entries.add(i, entry);
+            if (entries.size() > DEPTH) {
+                BuildEntry dropped = entries.remove(entries.size() - 1);
+                floor = dropped.number() + 1;
+            }
+            return true;
+        }
+
+        boolean remove(int number) {
+            boolean halfFull = entries.size() >= DEPTH / 2;
+            if (!entries.removeIf(entry -> entry.number() == number)) {
+                return false;
+            }
+            if (floor > 0 && halfFull && entries.size() < DEPTH / 2) {
+                shrunk = true;
+            }
+            return true;
+        }
+    }
+}
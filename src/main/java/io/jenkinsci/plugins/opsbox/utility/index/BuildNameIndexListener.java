@@ -0,0 +1,65 @@
+package io.jenkinsci.plugins.opsbox.utility.index;
+
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.Item;
+import hudson.model.Run;
+import hudson.model.Saveable;
+import hudson.model.TaskListener;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.RunListener;
+import hudson.model.listeners.SaveableListener;
+import io.jenkinsci.plugins.opsbox.utility.parameter.ArtifactSummaryAction;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Queues build history changes on {@link IndexUpdateQueue}, which applies them to {@link BuildNameIndex}
+ * and {@link io.jenkinsci.plugins.opsbox.utility.cache.BuildNameCache} in batches.
+ */
+@Extension
+public class BuildNameIndexListener extends RunListener<Run<?, ?>> {
+
+    @Override
+    public void onCompleted(Run<?, ?> run, @Nonnull TaskListener listener) {
+        // artifacts are archived by now; the action is persisted with the build record. Other jobs' builds
+        // are never offered, or have their archive listed by the index in the background once they are
+        if (UpstreamJobs.get().contains(run.getParent().getFullName())) {
+            ArtifactSummaryAction.record(run);
+        }
+        IndexUpdateQueue.get().changed(run);
+    }
+
+    @Override
+    public void onDeleted(Run<?, ?> run) {
+        IndexUpdateQueue.get().deleted(run);
+    }
+
+    /**
+     * Catches display names and keep-forever flags changed after the build completed. Saves of running
+     * builds are ignored, their state is taken on completion.
+     */
+    @Extension
+    public static class RunSaveListener extends SaveableListener {
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            if (o instanceof Run<?, ?> run && !run.isBuilding()) {
+                IndexUpdateQueue.get().changed(run);
+            }
+        }
+    }
+
+    @Extension
+    public static class JobListener extends ItemListener {
+        @Override
+        public void onDeleted(Item item) {
+            BuildNameIndex.get().forget(item.getFullName());
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            // re-indexed under the new name on the next lookup
+            BuildNameIndex.get().forget(oldFullName);
+        }
+    }
+}
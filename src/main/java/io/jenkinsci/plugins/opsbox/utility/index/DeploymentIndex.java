@@ -0,0 +1,209 @@
+package io.jenkinsci.plugins.opsbox.utility.index;
+
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.Util;
+import hudson.model.Item;
+import hudson.model.Job;
+import hudson.model.ParameterValue;
+import hudson.model.ParametersAction;
+import hudson.model.Run;
+import hudson.model.StringParameterValue;
+import hudson.model.TaskListener;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.RunListener;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import io.jenkinsci.plugins.opsbox.utility.parameter.ResultClass;
+import jenkins.util.Timer;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The last build of a downstream job per value of one of its Job Build Name Parameters, i.e. which
+ * upstream builds it already deployed, so that the choices can be annotated at the cost of a map lookup.
+ * <p>
+ * A (job, parameter) pair is tracked from the first time its choices are rendered: its recent history,
+ * at most {@link #HISTORY_LIMIT} builds, is read once in the background and {@link Listener} keeps it
+ * up to date from then on. Until the history is read, choices are simply not annotated.
+ */
+@Extension
+public class DeploymentIndex {
+
+    static final int HISTORY_LIMIT = 200;
+    static final int MAX_VALUES = 500;
+
+    private final Map<Key, Usages> usages = new ConcurrentHashMap<>();
+
+    @Nonnull
+    public static DeploymentIndex get() {
+        return ExtensionList.lookupSingleton(DeploymentIndex.class);
+    }
+
+    /**
+     * Last build of {@code job} per value of {@code parameterName}, starting to track them if needed.
+     */
+    @Nonnull
+    public Map<String, Deployment> deployments(@Nonnull Job<?, ?> job, @Nonnull String parameterName) {
+        Key key = new Key(job.getFullName(), parameterName);
+        Usages tracked = usages.computeIfAbsent(key, k -> new Usages());
+        if (tracked.loading.compareAndSet(false, true)) {
+            Timer.get().submit(() -> {
+                try (ACLContext ignored = ACL.as2(ACL.SYSTEM2)) {
+                    load(job, parameterName, tracked);
+                }
+            });
+        }
+        return Collections.unmodifiableMap(tracked.byValue);
+    }
+
+    private static void load(Job<?, ?> job, String parameterName, Usages tracked) {
+        for (Run<?, ?> run : job.getBuilds().limit(HISTORY_LIMIT)) {
+            if (!run.isBuilding()) {
+                String value = valueOf(run, parameterName);
+                if (value != null) {
+                    tracked.record(value, Deployment.of(run));
+                }
+            }
+        }
+    }
+
+    void onCompleted(@Nonnull Run<?, ?> run) {
+        forEachTracked(run, (parameterName, tracked, value) -> tracked.record(value, Deployment.of(run)));
+    }
+
+    /**
+     * Drops the deleted build. If it was the last deployment of a value, the next newest build that deployed
+     * it, if still retained, is looked up in the background.
+     */
+    void onDeleted(@Nonnull Run<?, ?> run) {
+        Job<?, ?> job = run.getParent();
+        int number = run.getNumber();
+        forEachTracked(run, (parameterName, tracked, value) -> {
+            Deployment deployment = tracked.byValue.get(value);
+            if (deployment != null && deployment.number() == number && tracked.byValue.remove(value, deployment)) {
+                Timer.get().submit(() -> {
+                    try (ACLContext ignored = ACL.as2(ACL.SYSTEM2)) {
+                        reload(job, parameterName, value, number, tracked);
+                    }
+                });
+            }
+        });
+    }
+
+    private static void reload(Job<?, ?> job, String parameterName, String value, int deleted, Usages tracked) {
+        for (Run<?, ?> run : job.getBuilds().limit(HISTORY_LIMIT)) {
+            if (run.getNumber() != deleted && !run.isBuilding() && ResultClass.of(run.getResult()) != null
+                    && value.equals(valueOf(run, parameterName))) {
+                tracked.record(value, Deployment.of(run));
+                return;
+            }
+        }
+    }
+
+    void forget(@Nonnull String jobFullName) {
+        usages.keySet().removeIf(key -> key.jobFullName().equals(jobFullName));
+    }
+
+    private void forEachTracked(Run<?, ?> run, TrackedAction action) {
+        ParametersAction parameters = run.getAction(ParametersAction.class);
+        if (parameters == null || ResultClass.of(run.getResult()) == null) {
+            return;
+        }
+        String jobFullName = run.getParent().getFullName();
+        for (ParameterValue parameter : parameters.getParameters()) {
+            if (parameter instanceof StringParameterValue stringValue && stringValue.getValue() != null) {
+                Usages tracked = usages.get(new Key(jobFullName, parameter.getName()));
+                if (tracked != null) {
+                    action.accept(parameter.getName(), tracked, stringValue.getValue());
+                }
+            }
+        }
+    }
+
+    private interface TrackedAction {
+        void accept(String parameterName, Usages tracked, String value);
+    }
+
+    @CheckForNull
+    private static String valueOf(Run<?, ?> run, String parameterName) {
+        ParametersAction parameters = run.getAction(ParametersAction.class);
+        if (parameters == null) {
+            return null;
+        }
+        ParameterValue parameter = parameters.getParameter(parameterName);
+        return parameter instanceof StringParameterValue stringValue ? stringValue.getValue() : null;
+    }
+
+    record Key(@Nonnull String jobFullName, @Nonnull String parameterName) {
+    }
+
+    /**
+     * A build of the downstream job that used a given value.
+     */
+    public record Deployment(int number, ResultClass result, long completedMillis) {
+
+        static Deployment of(Run<?, ?> run) {
+            return new Deployment(run.getNumber(), ResultClass.of(run.getResult()),
+                    run.getStartTimeInMillis() + run.getDuration());
+        }
+
+        /**
+         * E.g. "deployed by #12 (SUCCESS) 3 days ago".
+         */
+        @Nonnull
+        public String getSummary() {
+            return Messages.DeploymentIndex_Deployed(number, result,
+                    Util.getTimeSpanString(System.currentTimeMillis() - completedMillis));
+        }
+    }
+
+    private static final class Usages {
+        private final Map<String, Deployment> byValue = new ConcurrentHashMap<>();
+        private final AtomicBoolean loading = new AtomicBoolean();
+
+        void record(String value, Deployment deployment) {
+            if (deployment.result() == null) {
+                return;
+            }
+            byValue.merge(value, deployment, (a, b) -> a.number() >= b.number() ? a : b);
+            if (byValue.size() > MAX_VALUES) {
+                // the value deployed longest ago goes first
+                byValue.entrySet().stream()
+                        .min(Map.Entry.comparingByValue((a, b) -> Integer.compare(a.number(), b.number())))
+                        .ifPresent(oldest -> byValue.remove(oldest.getKey(), oldest.getValue()));
+            }
+        }
+    }
+
+    @Extension
+    public static class Listener extends RunListener<Run<?, ?>> {
+        @Override
+        public void onCompleted(Run<?, ?> run, @Nonnull TaskListener listener) {
+            DeploymentIndex.get().onCompleted(run);
+        }
+
+        @Override
+        public void onDeleted(Run<?, ?> run) {
+            DeploymentIndex.get().onDeleted(run);
+        }
+    }
+
+    @Extension
+    public static class JobListener extends ItemListener {
+        @Override
+        public void onDeleted(Item item) {
+            DeploymentIndex.get().forget(item.getFullName());
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            DeploymentIndex.get().forget(oldFullName);
+        }
+    }
+}
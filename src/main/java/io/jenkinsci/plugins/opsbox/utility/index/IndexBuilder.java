@@ -0,0 +1,245 @@
+package io.jenkinsci.plugins.opsbox.utility.index;
+
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
+import hudson.model.Item;
+import hudson.model.Job;
+import hudson.model.ParameterDefinition;
+import hudson.model.ParametersDefinitionProperty;
+import hudson.model.Run;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import io.jenkinsci.plugins.opsbox.utility.parameter.ArtifactSummaryAction;
+import io.jenkinsci.plugins.opsbox.utility.parameter.JobBuildNameParameterDefinition;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+import jenkins.util.Timer;
+import lombok.Getter;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Builds {@link ItemIndex} and {@link BuildNameIndex} in the background once job configurations are
+ * loaded, so that a restart is not slowed down by this plugin.
+ * <p>
+ * Until {@link #isReady()} turns true, lookups keep using the direct code paths (full item walk and
+ * history scan). With a usable {@link IndexSnapshot} the indexes are ready as soon as it is loaded and
+ * the items are walked, and are then reconciled in the background; a failed build turns them off again,
+ * and a job that failed to be indexed or reconciled is dropped so that its history is scanned instead.
+ * Upstream jobs that appear later, e.g. in a newly added parameter, are indexed on demand.
+ */
+@Extension
+public class IndexBuilder {
+
+    private static final Logger LOG = Logger.getLogger(IndexBuilder.class.getName());
+
+    static final int PARALLELISM = SystemProperties.getInteger(IndexBuilder.class.getName() + ".parallelism",
+            Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2)));
+
+    /**
+     * Builds of one job queued for an artifact summary at a time; further requests are dropped until the
+     * queue drains, and made again by a later lookup.
+     */
+    static final int BACKFILL_LIMIT = SystemProperties.getInteger(IndexBuilder.class.getName() + ".backfillLimit", 20);
+
+    @Getter
+    private volatile boolean ready;
+    @Getter
+    private volatile long durationMillis = -1;
+
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    // upstream job full name -> build numbers queued for an artifact summary, guarded by itself
+    private final Map<String, Set<Integer>> pendingSummaries = new HashMap<>();
+
+    @Nonnull
+    public static IndexBuilder get() {
+        return ExtensionList.lookupSingleton(IndexBuilder.class);
+    }
+
+    @Initializer(after = InitMilestone.JOB_CONFIG_ADAPTED)
+    public static void buildOnStartup() {
+        // a thread of its own: the build waits for its pool for as long as indexing takes, which would hold a Timer thread
+        ExecutorService executor = Executors.newSingleThreadExecutor(
+                new NamingThreadFactory(new DaemonThreadFactory(), "Opsbox index startup"));
+        executor.execute(() -> get().build());
+        executor.shutdown();
+    }
+
+    /**
+     * Indexes the build history of {@code job} in the background, unless it is indexed already or queued.
+     */
+    public void scheduleIndex(@Nonnull Job<?, ?> job) {
+        String fullName = job.getFullName();
+        if (BuildNameIndex.get().isIndexed(fullName) || !pending.add(fullName)) {
+            return;
+        }
+        Timer.get().submit(() -> {
+            try (ACLContext ignored = ACL.as2(ACL.SYSTEM2)) {
+                BuildNameIndex.get().index(job);
+            } finally {
+                pending.remove(fullName);
+            }
+        });
+    }
+
+    /**
+     * Records the artifact summary of a build that completed before summaries were recorded, in the background.
+     * Request threads never list an archive; until this is done the build does not match any artifact filter.
+     * Each job has at most one task at a time, saving the builds queued for it one after the other.
+     */
+    public void scheduleArtifactSummary(@Nonnull Job<?, ?> job, int number) {
+        String fullName = job.getFullName();
+        synchronized (pendingSummaries) {
+            Set<Integer> numbers = pendingSummaries.get(fullName);
+            if (numbers != null) {
+                if (numbers.size() < BACKFILL_LIMIT) {
+                    numbers.add(number);
+                }
+                return;
+            }
+            numbers = new LinkedHashSet<>();
+            numbers.add(number);
+            pendingSummaries.put(fullName, numbers);
+        }
+        Timer.get().submit(() -> backfillArtifactSummaries(job));
+    }
+
+    private void backfillArtifactSummaries(Job<?, ?> job) {
+        String fullName = job.getFullName();
+        try (ACLContext ignored = ACL.as2(ACL.SYSTEM2)) {
+            while (true) {
+                List<Integer> numbers;
+                synchronized (pendingSummaries) {
+                    Set<Integer> pending = pendingSummaries.get(fullName);
+                    if (pending.isEmpty()) {
+                        pendingSummaries.remove(fullName);
+                        return;
+                    }
+                    numbers = new ArrayList<>(pending);
+                    pending.clear();
+                }
+                for (int number : numbers) {
+                    Run<?, ?> run = job.getBuildByNumber(number);
+                    if (run != null) {
+                        // saving queues the build on IndexUpdateQueue, which refreshes the index and the cache
+                        ArtifactSummaryAction.backfill(run);
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            synchronized (pendingSummaries) {
+                pendingSummaries.remove(fullName);
+            }
+            LOG.log(Level.WARNING, "Failed to record artifact summaries of " + fullName, e);
+        }
+    }
+
+    void build() {
+        long start = System.currentTimeMillis();
+        ExecutorService pool = Executors.newFixedThreadPool(PARALLELISM,
+                new NamingThreadFactory(new DaemonThreadFactory(), "Opsbox index builder"));
+        try (ACLContext ignored = ACL.as2(ACL.SYSTEM2)) {
+            IndexSnapshot.Loaded snapshot = IndexSnapshot.get().load();
+
+            Set<String> upstreamNames = new LinkedHashSet<>();
+            Set<String> fullNames = new HashSet<>();
+            ItemIndex itemIndex = ItemIndex.get();
+            for (Item item : Jenkins.get().allItems(Item.class)) {
+                itemIndex.add(item.getName(), item.getFullName());
+                fullNames.add(item.getFullName());
+                if (item instanceof Job<?, ?> job) {
+                    collectUpstreamNames(job, upstreamNames);
+                }
+            }
+            if (snapshot != null) {
+                itemIndex.retainAll(fullNames);
+                // serve from the snapshot once the items are current, the reconciliation below only catches up builds
+                ready = true;
+            }
+
+            Map<String, Future<?>> tasks = new LinkedHashMap<>();
+            for (String upstreamName : upstreamNames) {
+                Job<?, ?> upstream = Jenkins.get().getItemByFullName(upstreamName, Job.class);
+                if (upstream == null) {
+                    upstream = itemIndex.find(upstreamName, Job.class);
+                }
+                if (upstream != null && !tasks.containsKey(upstream.getFullName())) {
+                    UpstreamJobs.get().add(upstream.getFullName());
+                    Job<?, ?> job = upstream;
+                    Integer from = snapshot == null ? null : snapshot.reconcileFrom().remove(job.getFullName());
+                    tasks.put(job.getFullName(), pool.submit(() -> {
+                        try (ACLContext system = ACL.as2(ACL.SYSTEM2)) {
+                            if (from == null) {
+                                BuildNameIndex.get().index(job);
+                            } else {
+                                BuildNameIndex.get().reconcile(job, snapshot.timestampMillis(), from);
+                            }
+                        }
+                    }));
+                }
+            }
+            if (snapshot != null) {
+                // no longer referenced, or gone since the snapshot was written
+                snapshot.reconcileFrom().keySet().forEach(BuildNameIndex.get()::forget);
+            }
+            for (Map.Entry<String, Future<?>> task : tasks.entrySet()) {
+                try {
+                    task.getValue().get();
+                } catch (ExecutionException e) {
+                    // possibly half reconciled: scan the history of this job until it is indexed again on demand
+                    BuildNameIndex.get().forget(task.getKey());
+                    LOG.log(Level.WARNING, "Failed to index builds of " + task.getKey() + ", scanning its history instead",
+                            e.getCause());
+                }
+            }
+            pool.shutdown();
+
+            durationMillis = System.currentTimeMillis() - start;
+            ready = true;
+            LOG.info(() -> "Opsbox indexes built in " + durationMillis + "ms: " + itemIndex.size() + " item names, "
+                    + BuildNameIndex.get().size() + " upstream jobs");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            ready = false;
+            LOG.log(Level.WARNING, "Interrupted while building Opsbox indexes, staying on direct lookups", e);
+        } catch (RuntimeException e) {
+            // the snapshot may have been half reconciled
+            ready = false;
+            LOG.log(Level.WARNING, "Failed to build Opsbox indexes, staying on direct lookups", e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    static void collectUpstreamNames(Job<?, ?> job, Set<String> upstreamNames) {
+        ParametersDefinitionProperty property = job.getProperty(ParametersDefinitionProperty.class);
+        if (property == null) {
+            return;
+        }
+        for (ParameterDefinition definition : property.getParameterDefinitions()) {
+            if (definition instanceof JobBuildNameParameterDefinition buildNameDefinition
+                    && buildNameDefinition.getJobName() != null) {
+                upstreamNames.add(buildNameDefinition.getJobName());
+            }
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package io.jenkinsci.plugins.opsbox.utility.index;
+
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.init.Terminator;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.TaskListener;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Binary snapshot of {@link ItemIndex} and {@link BuildNameIndex} under {@code JENKINS_HOME}, so that a
+ * controller taking over a shared home, or simply restarting, starts with warm indexes.
+ * <p>
+ * The snapshot is written periodically while the indexes change, and on shutdown. The file is replaced
+ * atomically and carries a format version and a CRC32 of its payload; a snapshot failing either check is
+ * ignored and the indexes are built from scratch. A loaded snapshot is reconciled by {@link IndexBuilder}
+ * against the builds that completed, changed or were deleted after it was written.
+ */
+@Extension
+public class IndexSnapshot extends AsyncPeriodicWork {
+
+    private static final Logger LOG = Logger.getLogger(IndexSnapshot.class.getName());
+
+    static final int MAGIC = 0x4F504958; // "OPIX"
+    static final int FORMAT_VERSION = 1;
+
+    static final long PERIOD_MINUTES = SystemProperties.getLong(IndexSnapshot.class.getName() + ".periodMinutes", 5L);
+
+    // mod counts of both indexes when last written
+    private long writtenModCount = -1;
+
+    public IndexSnapshot() {
+        super("Opsbox index snapshot");
+    }
+
+    @Nonnull
+    public static IndexSnapshot get() {
+        return ExtensionList.lookupSingleton(IndexSnapshot.class);
+    }
+
+    @Override
+    public long getRecurrencePeriod() {
+        return TimeUnit.MINUTES.toMillis(PERIOD_MINUTES);
+    }
+
+    @Override
+    protected void execute(TaskListener listener) throws IOException {
+        if (IndexBuilder.get().isReady()) {
+            // queued builds are covered by the snapshot, so a crash after writing it must not lose them
+            IndexUpdateQueue.get().flushAll();
+            writeIfChanged();
+        }
+    }
+
+    @Terminator
+    public static void writeOnShutdown() {
+        if (!IndexBuilder.get().isReady()) {
+            return;
+        }
+        try (ACLContext ignored = ACL.as2(ACL.SYSTEM2)) {
+            IndexUpdateQueue.get().flushAll();
+            get().writeIfChanged();
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Failed to write Opsbox index snapshot on shutdown", e);
+        }
+    }
+
+    @Nonnull
+    static File getFile() {
+        return new File(new File(Jenkins.get().getRootDir(), "opsbox-utility"), "index-snapshot.bin");
+    }
+
+    synchronized void writeIfChanged() throws IOException {
+        long modCount = modCount();
+        if (modCount == writtenModCount) {
+            return;
+        }
+        write();
+        writtenModCount = modCount;
+    }
+
+    /**
+     * Writes a snapshot of the current indexes, replacing the previous one atomically.
+     */
+    synchronized void write() throws IOException {
+        // taken before reading the indexes: builds changing meanwhile are reconciled after loading
+        long timestamp = System.currentTimeMillis();
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(payload)) {
+            ItemIndex.get().writeSnapshot(out);
+            BuildNameIndex.get().writeSnapshot(out);
+        }
+        byte[] bytes = payload.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+
+        File file = getFile();
+        Path dir = file.getParentFile().toPath();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, file.getName(), ".tmp");
+        try {
+            try (FileOutputStream stream = new FileOutputStream(tmp.toFile());
+                 DataOutputStream out = new DataOutputStream(stream)) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(timestamp);
+                out.writeInt(bytes.length);
+                out.writeLong(crc.getValue());
+                out.write(bytes);
+                out.flush();
+                stream.getChannel().force(true);
+            }
+            try {
+                Files.move(tmp, file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        LOG.fine(() -> "Wrote Opsbox index snapshot of " + bytes.length + " bytes");
+    }
+
+    /**
+     * Loads the snapshot into the indexes, if there is a valid one.
+     *
+     * @return when the snapshot was taken and where to reconcile each loaded job from, or {@code null}
+     * if there was no usable snapshot
+     */
+    @CheckForNull
+    Loaded load() {
+        File file = getFile();
+        if (!file.isFile()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file.toPath()))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                LOG.info("Ignoring Opsbox index snapshot of another format: " + file);
+                return null;
+            }
+            long timestamp = in.readLong();
+            int length = in.readInt();
+            long checksum = in.readLong();
+            if (length < 0 || length > file.length()) {
+                LOG.warning("Ignoring corrupt Opsbox index snapshot: " + file);
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+            if (crc.getValue() != checksum) {
+                LOG.warning("Ignoring corrupt Opsbox index snapshot: " + file);
+                return null;
+            }
+
+            try (DataInputStream payload = new DataInputStream(new ByteArrayInputStream(bytes))) {
+                ItemIndex.get().readSnapshot(payload);
+                Map<String, Integer> reconcileFrom = BuildNameIndex.get().readSnapshot(payload);
+                return new Loaded(timestamp, reconcileFrom);
+            }
+        } catch (IOException | RuntimeException e) {
+            LOG.log(Level.WARNING, "Failed to load Opsbox index snapshot " + file + ", building indexes from scratch", e);
+            ItemIndex.get().clear();
+            BuildNameIndex.get().clear();
+            return null;
+        }
+    }
+
+    private static long modCount() {
+        return ItemIndex.get().getModCount() + BuildNameIndex.get().getModCount();
+    }
+
+    /**
+     * @param timestampMillis when the snapshot was taken
+     * @param reconcileFrom   per loaded job, the first build number that may have completed after that
+     */
+    record Loaded(long timestampMillis, @Nonnull Map<String, Integer> reconcileFrom) {
+    }
+}
@@ -0,0 +1,161 @@
+package io.jenkinsci.plugins.opsbox.utility.index;
+
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.model.Run;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import io.jenkinsci.plugins.opsbox.utility.cache.BuildNameCache;
+import jenkins.util.AtmostOneTaskExecutor;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Write-behind queue of build changes for {@link BuildNameIndex} and {@link BuildNameCache}.
+ * <p>
+ * Listeners only record which builds of which job changed; the latest change of a build wins, so a build
+ * completed, renamed and deleted in quick succession costs a single deletion. A single background task
+ * applies the pending changes one job at a time, taking the index lock and invalidating the cache once
+ * per job rather than once per build, and only if the job's lists may have changed. Deleting thousands of
+ * builds, e.g. by a build discarder, therefore costs a handful of batches.
+ * <p>
+ * Readers call {@link #flush(String)} before looking at a job, and before entering the cache, so they
+ * never see a state older than the changes already queued for it.
+ */
+@Extension
+public class IndexUpdateQueue {
+
+    private static final Logger LOG = Logger.getLogger(IndexUpdateQueue.class.getName());
+
+    private final Map<String, PendingJob> pending = new ConcurrentHashMap<>();
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtmostOneTaskExecutor<Void> executor = new AtmostOneTaskExecutor<>(() -> {
+        flushAll();
+        return null;
+    });
+
+    @Nonnull
+    public static IndexUpdateQueue get() {
+        return ExtensionList.lookupSingleton(IndexUpdateQueue.class);
+    }
+
+    /**
+     * Queues a completed build, or a change to the display name, result or keep-forever status of one.
+     */
+    public void changed(@Nonnull Run<?, ?> run) {
+        submit(run.getParent().getFullName(), run.getNumber(), run);
+    }
+
+    public void deleted(@Nonnull Run<?, ?> run) {
+        submit(run.getParent().getFullName(), run.getNumber(), null);
+    }
+
+    /**
+     * Applies the changes queued for the given job, if any, before it returns.
+     */
+    public void flush(@Nonnull String jobFullName) {
+        PendingJob job = pending.get(jobFullName);
+        if (job != null) {
+            job.apply(jobFullName);
+        }
+    }
+
+    /**
+     * Applies every queued change.
+     */
+    public void flushAll() {
+        for (String jobFullName : new ArrayList<>(pending.keySet())) {
+            flush(jobFullName);
+        }
+    }
+
+    /**
+     * Incremented whenever a change is queued, so that callers can tell builds changed without applying it.
+     */
+    public long getSubmittedCount() {
+        return submitted.get();
+    }
+
+    private void submit(String jobFullName, int number, Run<?, ?> run) {
+        while (true) {
+            PendingJob job = pending.computeIfAbsent(jobFullName, k -> new PendingJob());
+            synchronized (job) {
+                if (job.retired) {
+                    // removed from the map by a concurrent apply, get a new one
+                    continue;
+                }
+                job.changes.put(number, run == null ? Change.DELETED : new Change(run));
+            }
+            break;
+        }
+        submitted.incrementAndGet();
+        executor.submit();
+    }
+
+    /**
+     * Either the build to re-read, or {@link #DELETED}.
+     */
+    private record Change(Run<?, ?> run) {
+        static final Change DELETED = new Change(null);
+    }
+
+    private final class PendingJob {
+        // build number -> latest change
+        private Map<Integer, Change> changes = new HashMap<>();
+        private boolean retired;
+
+        /**
+         * Applies the changes under this job's monitor, so that a concurrent {@link #flush} waits for them.
+         */
+        synchronized void apply(String jobFullName) {
+            if (retired) {
+                return;
+            }
+            Map<Integer, Change> batch = changes;
+            changes = new HashMap<>();
+            try {
+                if (!batch.isEmpty()) {
+                    applyBatch(jobFullName, batch);
+                }
+            } finally {
+                // only now, so that a reader finding this job queued waits until its changes are visible
+                retired = true;
+                pending.remove(jobFullName, this);
+            }
+        }
+
+        private void applyBatch(String jobFullName, Map<Integer, Change> batch) {
+            List<Run<?, ?>> upserts = new ArrayList<>();
+            List<Integer> deletions = new ArrayList<>();
+            batch.forEach((number, change) -> {
+                if (change.run() == null) {
+                    deletions.add(number);
+                } else {
+                    upserts.add(change.run());
+                }
+            });
+            BuildNameIndex index = BuildNameIndex.get();
+            boolean changed = true;
+            try (ACLContext ignored = ACL.as2(ACL.SYSTEM2)) {
+                changed = index.apply(jobFullName, upserts, deletions);
+            } catch (RuntimeException e) {
+                LOG.log(Level.WARNING, "Failed to update the build name index of " + jobFullName + ", rebuilding it", e);
+                index.forget(jobFullName);
+            } finally {
+                // lists of jobs not tracked by the index were computed by scanning, if this job is an upstream at all
+                BuildNameCache cache = BuildNameCache.get();
+                if (changed || !index.isIndexed(jobFullName) && cache.isCached(jobFullName)) {
+                    cache.invalidate(jobFullName);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package io.jenkinsci.plugins.opsbox.utility.index;
+
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.model.Item;
+import hudson.model.listeners.ItemListener;
+import jenkins.model.Jenkins;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Short item name to full names, so that an upstream job given without its folder path can be
+ * resolved without iterating over every item of the controller.
+ * <p>
+ * Entries are only hints: callers must resolve the full name and check it still matches, since an
+ * item may have been moved or deleted while the index was being built.
+ */
+@Extension
+public class ItemIndex {
+
+    private final Map<String, CopyOnWriteArrayList<String>> fullNamesByName = new ConcurrentHashMap<>();
+    private final AtomicLong modCount = new AtomicLong();
+
+    @Nonnull
+    public static ItemIndex get() {
+        return ExtensionList.lookupSingleton(ItemIndex.class);
+    }
+
+    /**
+     * Full names of the items called {@code name}, in the order they were indexed.
+     */
+    @Nonnull
+    public List<String> fullNames(@Nonnull String name) {
+        List<String> fullNames = fullNamesByName.get(name);
+        return fullNames == null ? List.of() : fullNames;
+    }
+
+    /**
+     * The item called {@code name} that the current user can see, as seen by
+     * {@link Jenkins#getItemByFullName(String, Class)}. When several are, the one {@link Jenkins#getAllItems(Class)}
+     * visits first is returned, whatever the order they were indexed in.
+     */
+    @CheckForNull
+    public <T extends Item> T find(@Nonnull String name, @Nonnull Class<T> type) {
+        T found = null;
+        for (String fullName : fullNames(name)) {
+            T item = Jenkins.get().getItemByFullName(fullName, type);
+            if (item != null && item.getName().equals(name)
+                    && (found == null || compareWalkOrder(fullName, found.getFullName()) < 0)) {
+                found = item;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Compares full names in the order of the item walk: depth first, the items of each folder sorted by name
+     * ignoring case, with a trailing slash on folder names.
+     */
+    static int compareWalkOrder(@Nonnull String fullName, @Nonnull String otherFullName) {
+        String[] segments = fullName.split("/");
+        String[] otherSegments = otherFullName.split("/");
+        for (int i = 0; i < Math.min(segments.length, otherSegments.length); i++) {
+            int compared = walkName(segments, i).compareToIgnoreCase(walkName(otherSegments, i));
+            if (compared != 0) {
+                return compared;
+            }
+        }
+        return Integer.compare(segments.length, otherSegments.length);
+    }
+
+    private static String walkName(String[] segments, int i) {
+        // every segment but the last is a folder
+        return i < segments.length - 1 ? segments[i] + "/" : segments[i];
+    }
+
+    public int size() {
+        return fullNamesByName.size();
+    }
+
+    void add(@Nonnull String name, @Nonnull String fullName) {
+        CopyOnWriteArrayList<String> fullNames = fullNamesByName.computeIfAbsent(name, k -> new CopyOnWriteArrayList<>());
+        if (fullNames.addIfAbsent(fullName)) {
+            modCount.incrementAndGet();
+        }
+    }
+
+    void remove(@Nonnull String name, @Nonnull String fullName) {
+        fullNamesByName.computeIfPresent(name, (k, fullNames) -> {
+            if (fullNames.remove(fullName)) {
+                modCount.incrementAndGet();
+            }
+            return fullNames.isEmpty() ? null : fullNames;
+        });
+    }
+
+    /**
+     * Drops the items not in {@code fullNames}, e.g. those deleted since a snapshot was written.
+     */
+    void retainAll(@Nonnull Set<String> fullNames) {
+        for (Map.Entry<String, CopyOnWriteArrayList<String>> entry : fullNamesByName.entrySet()) {
+            for (String fullName : entry.getValue()) {
+                if (!fullNames.contains(fullName)) {
+                    remove(entry.getKey(), fullName);
+                }
+            }
+        }
+    }
+
+    void clear() {
+        fullNamesByName.clear();
+        modCount.incrementAndGet();
+    }
+
+    /**
+     * Incremented whenever an item is added, moved or removed.
+     */
+    public long getModCount() {
+        return modCount.get();
+    }
+
+    void writeSnapshot(@Nonnull DataOutputStream out) throws IOException {
+        Map<String, List<String>> copy = new HashMap<>();
+        fullNamesByName.forEach((name, fullNames) -> copy.put(name, List.copyOf(fullNames)));
+        out.writeInt(copy.size());
+        for (Map.Entry<String, List<String>> entry : copy.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeInt(entry.getValue().size());
+            for (String fullName : entry.getValue()) {
+                out.writeUTF(fullName);
+            }
+        }
+    }
+
+    void readSnapshot(@Nonnull DataInputStream in) throws IOException {
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            String name = in.readUTF();
+            int size = in.readInt();
+            for (int j = 0; j < size; j++) {
+                add(name, in.readUTF());
+            }
+        }
+    }
+
+    private static String shortName(String fullName) {
+        return fullName.substring(fullName.lastIndexOf('/') + 1);
+    }
+
+    @Extension
+    public static class Listener extends ItemListener {
+        @Override
+        public void onCreated(Item item) {
+            ItemIndex.get().add(item.getName(), item.getFullName());
+        }
+
+        @Override
+        public void onCopied(Item src, Item item) {
+            ItemIndex.get().add(item.getName(), item.getFullName());
+        }
+
+        @Override
+        public void onDeleted(Item item) {
+            ItemIndex.get().remove(item.getName(), item.getFullName());
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            // also called for every nested item when a folder is moved or renamed
+            ItemIndex index = ItemIndex.get();
+            index.remove(shortName(oldFullName), oldFullName);
+            index.add(item.getName(), newFullName);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package io.jenkinsci.plugins.opsbox.utility.index;
+
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.model.Item;
+import hudson.model.Job;
+import hudson.model.listeners.ItemListener;
+import jenkins.model.Jenkins;
+
+import javax.annotation.Nonnull;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Full names of the upstream jobs referenced by Job Build Name Parameters, so that work done for every
+ * completed build, like recording its artifact summary, is limited to builds that can be offered as choices.
+ * <p>
+ * Filled by {@link IndexBuilder} at startup, whenever a job with such a parameter is saved, and whenever a
+ * parameter resolves its upstream job. Names stay until the job is deleted or renamed, even if the last
+ * reference goes away; that only costs recording a few summaries too many until the next restart.
+ */
+@Extension
+public class UpstreamJobs {
+
+    private final Set<String> fullNames = ConcurrentHashMap.newKeySet();
+
+    @Nonnull
+    public static UpstreamJobs get() {
+        return ExtensionList.lookupSingleton(UpstreamJobs.class);
+    }
+
+    public boolean contains(@Nonnull String jobFullName) {
+        return fullNames.contains(jobFullName);
+    }
+
+    public void add(@Nonnull String jobFullName) {
+        fullNames.add(jobFullName);
+    }
+
+    public int size() {
+        return fullNames.size();
+    }
+
+    /**
+     * Adds the upstream jobs referenced by the parameters of {@code job} that can be resolved right away.
+     * Others are added once a parameter resolves them.
+     */
+    void addReferencedBy(@Nonnull Job<?, ?> job) {
+        Set<String> upstreamNames = new LinkedHashSet<>();
+        IndexBuilder.collectUpstreamNames(job, upstreamNames);
+        for (String upstreamName : upstreamNames) {
+            Job<?, ?> upstream = Jenkins.get().getItemByFullName(upstreamName, Job.class);
+            if (upstream == null) {
+                upstream = ItemIndex.get().find(upstreamName, Job.class);
+            }
+            if (upstream != null) {
+                add(upstream.getFullName());
+            }
+        }
+    }
+
+    @Extension
+    public static class Listener extends ItemListener {
+        @Override
+        public void onCreated(Item item) {
+            if (item instanceof Job<?, ?> job) {
+                UpstreamJobs.get().addReferencedBy(job);
+            }
+        }
+
+        @Override
+        public void onUpdated(Item item) {
+            if (item instanceof Job<?, ?> job) {
+                UpstreamJobs.get().addReferencedBy(job);
+            }
+        }
+
+        @Override
+        public void onDeleted(Item item) {
+            UpstreamJobs.get().fullNames.remove(item.getFullName());
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            UpstreamJobs upstreamJobs = UpstreamJobs.get();
+            if (upstreamJobs.fullNames.remove(oldFullName)) {
+                upstreamJobs.add(newFullName);
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package io.jenkinsci.plugins.opsbox.utility.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Computation of the eligible build names of an upstream job, for choices or for validating a value.
+ * On a cache miss {@link #buildsExamined} tells how much build history was read.
+ */
+@Name("io.jenkinsci.plugins.opsbox.utility.BuildNames")
+@Label("Build Name Scan")
+@Threshold("20 ms")
+public class BuildNamesEvent extends LookupEvent {
+
+    @Label("Builds Examined")
+    @Description("Builds read from the index or the build history on a cache miss")
+    public int buildsExamined;
+
+    @Label("Indexed")
+    @Description("Whether a cache miss was answered by the build name index rather than a history scan")
+    public boolean indexed;
+
+    @Label("Stale")
+    @Description("Whether the last known list was served because the controller was overloaded")
+    public boolean stale;
+
+    @Label("Build Names")
+    public int buildNameCount;
+}
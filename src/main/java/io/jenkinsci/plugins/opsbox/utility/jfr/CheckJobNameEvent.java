@@ -0,0 +1,20 @@
+package io.jenkinsci.plugins.opsbox.utility.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Form validation of the upstream job name of a Job Build Name Parameter.
+ */
+@Name("io.jenkinsci.plugins.opsbox.utility.CheckJobName")
+@Label("Upstream Job Name Validation")
+@Threshold("20 ms")
+public class CheckJobNameEvent extends LookupEvent {
+
+    @Label("Found")
+    public boolean found;
+
+    @Label("Readable")
+    public boolean readable;
+}
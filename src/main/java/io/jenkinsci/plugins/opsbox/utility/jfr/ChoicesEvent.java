@@ -0,0 +1,26 @@
+package io.jenkinsci.plugins.opsbox.utility.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Choices of one Job Build Name Parameter, e.g. rendered on the build page or listed by the API.
+ */
+@Name("io.jenkinsci.plugins.opsbox.utility.Choices")
+@Label("Build Name Choices")
+@Threshold("20 ms")
+public class ChoicesEvent extends LookupEvent {
+
+    @Label("Parameter Name")
+    public String parameterName;
+
+    @Label("Builds Examined")
+    public int buildsExamined;
+
+    @Label("Stale")
+    public boolean stale;
+
+    @Label("Choices")
+    public int choiceCount;
+}
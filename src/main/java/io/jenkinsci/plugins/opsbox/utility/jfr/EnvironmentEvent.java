@@ -0,0 +1,23 @@
+package io.jenkinsci.plugins.opsbox.utility.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Export of the {@code PARAMS__} environment variables of a build. A cache hit means the exporters of every
+ * parameter type were already known.
+ */
+@Name("io.jenkinsci.plugins.opsbox.utility.Environment")
+@Label("Parameter Environment Export")
+@Threshold("20 ms")
+public class EnvironmentEvent extends LookupEvent {
+
+    @Label("Build Number")
+    public int buildNumber;
+
+    @Label("Variables")
+    @Description("Environment variables exported")
+    public int variableCount;
+}
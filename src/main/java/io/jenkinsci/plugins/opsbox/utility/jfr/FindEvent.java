@@ -0,0 +1,23 @@
+package io.jenkinsci.plugins.opsbox.utility.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Resolution of a configured upstream job name to a job. A cache hit means it was resolved by full name
+ * or through the item index, without walking all items.
+ */
+@Name("io.jenkinsci.plugins.opsbox.utility.Find")
+@Label("Upstream Job Lookup")
+@Threshold("10 ms")
+public class FindEvent extends LookupEvent {
+
+    @Label("Found")
+    public boolean found;
+
+    @Label("Items Examined")
+    @Description("Items compared by short name when walking all items")
+    public int itemsExamined;
+}
@@ -0,0 +1,23 @@
+package io.jenkinsci.plugins.opsbox.utility.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * Base of the Java Flight Recorder events of this plugin. Events are created and committed on the
+ * calling thread; when they are disabled, or faster than their threshold, nothing is recorded and
+ * committing them costs next to nothing.
+ */
+@Category({"Jenkins", "Opsbox Utility"})
+public abstract class LookupEvent extends Event {
+
+    @Label("Job Name")
+    @Description("Upstream job name as configured, or the job whose build is being set up")
+    public String jobName;
+
+    @Label("Cache Hit")
+    @Description("Whether the answer came from a cache or index instead of being computed")
+    public boolean cacheHit;
+}
@@ -0,0 +1,34 @@
+package io.jenkinsci.plugins.opsbox.utility.migration;
+
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
+import hudson.model.Items;
+import io.jenkinsci.plugins.opsbox.utility.parameter.JobBuildNameParameterDefinition;
+
+import java.util.List;
+
+/**
+ * Lets job configurations written by the former {@code oes-pipeline-plugin} / {@code oes-utils-plugin}
+ * load directly into {@link JobBuildNameParameterDefinition}, without running a migration script first.
+ */
+public final class LegacyClassAliases {
+
+    /**
+     * Class names the parameter definition was persisted under before it moved to this plugin.
+     */
+    static final List<String> LEGACY_CLASS_NAMES = List.of(
+            "cn.opsbox.jenkinsci.plugins.oes.parameter.JobBuildNameParameterDefinition",
+            "cn.opsbox.jenkinsci.plugins.oes.parameter.BuildNameParameterDefinition",
+            "dev.opsbox.jenkinsci.plugins.oes.parameter.JobBuildNameParameterDefinition",
+            "dev.opsbox.jenkinsci.plugins.oes.parameter.BuildNameParameterDefinition");
+
+    private LegacyClassAliases() {
+    }
+
+    @Initializer(before = InitMilestone.PLUGINS_STARTED)
+    public static void addAliases() {
+        for (String legacyClassName : LEGACY_CLASS_NAMES) {
+            Items.XSTREAM2.addCompatibilityAlias(legacyClassName, JobBuildNameParameterDefinition.class);
+        }
+    }
+}
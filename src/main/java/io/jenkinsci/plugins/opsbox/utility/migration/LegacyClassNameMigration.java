@@ -0,0 +1,254 @@
+package io.jenkinsci.plugins.opsbox.utility.migration;
+
+import hudson.Extension;
+import hudson.model.Item;
+import hudson.model.ManagementLink;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.util.AtomicFileWriter;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import io.jenkinsci.plugins.opsbox.utility.parameter.JobBuildNameParameterDefinition;
+import jenkins.model.Jenkins;
+import lombok.Getter;
+import org.kohsuke.stapler.HttpResponse;
+import org.kohsuke.stapler.HttpResponses;
+import org.kohsuke.stapler.verb.POST;
+
+import javax.annotation.CheckForNull;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * "Manage Jenkins" page rewriting job configurations that still reference the legacy class names
+ * listed in {@link LegacyClassAliases}.
+ * <p>
+ * The migration runs in the background. It walks the {@code jobs} directory tree (following folders,
+ * never descending into build directories), streams each {@code config.xml} line by line and stops
+ * at the first legacy reference. Unaffected items are therefore never loaded or parsed. Affected items
+ * are already loaded through the aliases, so saving them writes the new class name; a config that
+ * did not load is rewritten textually instead.
+ */
+@Extension
+public class LegacyClassNameMigration extends ManagementLink {
+
+    private static final Logger LOG = Logger.getLogger(LegacyClassNameMigration.class.getName());
+
+    static final int THREADS = 4;
+    private static final int MAX_REPORTED_FAILURES = 100;
+
+    private volatile Progress progress;
+
+    @Override
+    public String getIconFileName() {
+        return "symbol-reload";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "Migrate Legacy Parameters";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Rewrite job configurations that still use the old Job Build Name Parameter class names.";
+    }
+
+    @Override
+    public String getUrlName() {
+        return "opsbox-legacy-migration";
+    }
+
+    @Override
+    public Category getCategory() {
+        return Category.TROUBLESHOOTING;
+    }
+
+    @CheckForNull
+    public Progress getProgress() {
+        return progress;
+    }
+
+    @POST
+    public synchronized HttpResponse doStart() {
+        Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+        if (progress == null || progress.isFinished()) {
+            progress = start(new File(Jenkins.get().getRootDir(), "jobs"));
+        }
+        return HttpResponses.redirectToDot();
+    }
+
+    Progress start(File jobsDir) {
+        Progress started = new Progress();
+        // one thread walks the tree and waits for the others to migrate what it found
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS + 1, new NamingThreadFactory(
+                new DaemonThreadFactory(), "Opsbox legacy class name migration"));
+        pool.execute(() -> run(jobsDir, started, pool));
+        return started;
+    }
+
+    private void run(File jobsDir, Progress progress, ExecutorService pool) {
+        long start = System.currentTimeMillis();
+        try {
+            List<String> itemPaths = new ArrayList<>();
+            collect(jobsDir, "", itemPaths);
+            progress.total.set(itemPaths.size());
+
+            CountDownLatch done = new CountDownLatch(itemPaths.size());
+            for (String itemPath : itemPaths) {
+                pool.execute(() -> {
+                    try {
+                        migrate(jobsDir, itemPath, progress);
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pool.shutdownNow();
+        } finally {
+            pool.shutdown();
+            progress.durationMillis = System.currentTimeMillis() - start;
+            progress.finished = true;
+            LOG.info("Legacy class name migration finished: " + progress.migrated + " of " + progress.total
+                    + " items migrated, " + progress.failed + " failed, in " + progress.durationMillis + "ms");
+        }
+    }
+
+    /**
+     * Collects the full names of all items below {@code dir}, following the {@code jobs} directories of folders.
+     */
+    private static void collect(File dir, String prefix, List<String> itemPaths) {
+        File[] children = dir.listFiles(File::isDirectory);
+        if (children == null) {
+            return;
+        }
+        for (File child : children) {
+            String fullName = prefix + child.getName();
+            if (new File(child, "config.xml").isFile()) {
+                itemPaths.add(fullName);
+            }
+            File nested = new File(child, "jobs");
+            if (nested.isDirectory()) {
+                collect(nested, fullName + "/", itemPaths);
+            }
+        }
+    }
+
+    private static void migrate(File jobsDir, String fullName, Progress progress) {
+        File config = new File(jobsDir, fullName.replace("/", "/jobs/") + "/config.xml");
+        try {
+            if (containsLegacyClassName(config)) {
+                progress.affected.incrementAndGet();
+                rewrite(fullName, config);
+                progress.migrated.incrementAndGet();
+            }
+        } catch (IOException | RuntimeException e) {
+            LOG.log(Level.WARNING, "Failed to migrate " + config, e);
+            progress.failed.incrementAndGet();
+            progress.addFailure(fullName + ": " + e.getMessage());
+        } finally {
+            progress.scanned.incrementAndGet();
+        }
+    }
+
+    static boolean containsLegacyClassName(File config) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(config.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                for (String legacyClassName : LegacyClassAliases.LEGACY_CLASS_NAMES) {
+                    if (line.contains(legacyClassName)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void rewrite(String fullName, File config) throws IOException {
+        try (ACLContext ignored = ACL.as2(ACL.SYSTEM2)) {
+            Item item = Jenkins.get().getItemByFullName(fullName);
+            if (item != null) {
+                item.save();
+                return;
+            }
+        }
+        LOG.fine(() -> fullName + " is not loaded, rewriting " + config + " textually");
+        String target = JobBuildNameParameterDefinition.class.getName();
+        try (BufferedReader reader = Files.newBufferedReader(config.toPath(), StandardCharsets.UTF_8);
+             AtomicFileWriter writer = new AtomicFileWriter(config.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                for (String legacyClassName : LegacyClassAliases.LEGACY_CLASS_NAMES) {
+                    line = line.replace(legacyClassName, target);
+                }
+                writer.write(line);
+                writer.write('\n');
+            }
+            writer.commit();
+        }
+    }
+
+    /**
+     * Counters of one migration run, rendered by {@code index.jelly}.
+     */
+    public static class Progress {
+        private final AtomicInteger total = new AtomicInteger();
+        private final AtomicInteger scanned = new AtomicInteger();
+        private final AtomicInteger affected = new AtomicInteger();
+        private final AtomicInteger migrated = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final List<String> failures = Collections.synchronizedList(new ArrayList<>());
+        @Getter
+        private volatile boolean finished;
+        @Getter
+        private volatile long durationMillis;
+
+        public int getTotal() {
+            return total.get();
+        }
+
+        public int getScanned() {
+            return scanned.get();
+        }
+
+        public int getAffected() {
+            return affected.get();
+        }
+
+        public int getMigrated() {
+            return migrated.get();
+        }
+
+        public int getFailed() {
+            return failed.get();
+        }
+
+        public List<String> getFailures() {
+            synchronized (failures) {
+                return new ArrayList<>(failures);
+            }
+        }
+
+        private void addFailure(String failure) {
+            if (failures.size() < MAX_REPORTED_FAILURES) {
+                failures.add(failure);
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package io.jenkinsci.plugins.opsbox.utility.parameter;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import hudson.model.Run;
+import org.apache.tools.ant.types.selectors.SelectorUtils;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Relative paths of the artifacts archived by a build, recorded once so that artifact filters can be
+ * evaluated without listing the archive again.
+ *
+ * @param paths     relative artifact paths, at most {@link #MAX_PATHS}
+ * @param truncated whether the build archived more artifacts than {@code paths} holds
+ */
+public record ArtifactSummary(@Nonnull List<String> paths, boolean truncated) {
+
+    static final int MAX_PATHS = 256;
+
+    public static final ArtifactSummary EMPTY = new ArtifactSummary(List.of(), false);
+
+    // directory prefixes and file names repeat across the builds of a job
+    private static final Interner<String> PATHS = Interners.newWeakInterner();
+
+    /**
+     * Lists the artifacts of {@code run}. This reads the artifact manager, so it belongs at build
+     * completion or in background indexing, not on the page rendering path.
+     */
+    @Nonnull
+    public static ArtifactSummary of(@Nonnull Run<?, ?> run) {
+        List<? extends Run.Artifact> artifacts = run.getArtifactsUpTo(MAX_PATHS + 1);
+        if (artifacts.isEmpty()) {
+            return EMPTY;
+        }
+        List<String> paths = new ArrayList<>(Math.min(artifacts.size(), MAX_PATHS));
+        for (Run.Artifact artifact : artifacts) {
+            if (paths.size() == MAX_PATHS) {
+                break;
+            }
+            paths.add(PATHS.intern(artifact.relativePath));
+        }
+        return new ArtifactSummary(List.copyOf(paths), artifacts.size() > MAX_PATHS);
+    }
+
+    /**
+     * Summary of already listed {@code paths}, e.g. read back from a snapshot.
+     */
+    @Nonnull
+    public static ArtifactSummary of(@Nonnull List<String> paths, boolean truncated) {
+        if (paths.isEmpty() && !truncated) {
+            return EMPTY;
+        }
+        List<String> interned = new ArrayList<>(paths.size());
+        for (String path : paths) {
+            interned.add(PATHS.intern(path));
+        }
+        return new ArtifactSummary(List.copyOf(interned), truncated);
+    }
+
+    /**
+     * Whether an artifact matches one of the comma separated Ant style patterns of {@code filter},
+     * e.g. {@code dist/*.tar.gz, **}{@code /*.zip}. A truncated summary without a match is given the
+     * benefit of the doubt, since the match may be among the artifacts that were not recorded.
+     */
+    public boolean matches(@CheckForNull String filter) {
+        if (filter == null || filter.isBlank()) {
+            return true;
+        }
+        for (String pattern : filter.split(",")) {
+            String trimmed = pattern.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            for (String path : paths) {
+                if (SelectorUtils.matchPath(trimmed, path)) {
+                    return true;
+                }
+            }
+        }
+        return truncated;
+    }
+
+    int estimateBytes() {
+        // the strings themselves are interned and shared between builds
+        return 32 + 16 + 4 * paths.size();
+    }
+}
@@ -0,0 +1,70 @@
+package io.jenkinsci.plugins.opsbox.utility.parameter;
+
+import hudson.model.InvisibleAction;
+import hudson.model.Run;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Persists the {@link ArtifactSummary} of a build in its {@code build.xml}, so that it is available
+ * with the build record itself after a restart.
+ */
+public class ArtifactSummaryAction extends InvisibleAction {
+
+    private static final Logger LOG = Logger.getLogger(ArtifactSummaryAction.class.getName());
+
+    private final List<String> paths;
+    private final boolean truncated;
+
+    ArtifactSummaryAction(@Nonnull ArtifactSummary summary) {
+        this.paths = new ArrayList<>(summary.paths());
+        this.truncated = summary.truncated();
+    }
+
+    @Nonnull
+    public ArtifactSummary getSummary() {
+        return paths == null || paths.isEmpty() && !truncated
+                ? ArtifactSummary.EMPTY
+                : new ArtifactSummary(List.copyOf(paths), truncated);
+    }
+
+    /**
+     * Records the artifacts of a completed build. Called once, when a build of an upstream job completes.
+     */
+    public static void record(@Nonnull Run<?, ?> run) {
+        if (run.getAction(ArtifactSummaryAction.class) == null) {
+            run.addAction(new ArtifactSummaryAction(ArtifactSummary.of(run)));
+        }
+    }
+
+    /**
+     * Records and persists the artifacts of a build that completed without a summary. Lists the archive,
+     * so only called in the background.
+     */
+    public static void backfill(@Nonnull Run<?, ?> run) {
+        if (run.getAction(ArtifactSummaryAction.class) != null) {
+            return;
+        }
+        record(run);
+        try {
+            run.save();
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Failed to save the artifact summary of " + run, e);
+        }
+    }
+
+    /**
+     * The recorded summary of {@code run}, or {@code null} for builds that completed before it was recorded.
+     */
+    @CheckForNull
+    public static ArtifactSummary recorded(@Nonnull Run<?, ?> run) {
+        ArtifactSummaryAction action = run.getAction(ArtifactSummaryAction.class);
+        return action == null ? null : action.getSummary();
+    }
+}
@@ -0,0 +1,59 @@
+package io.jenkinsci.plugins.opsbox.utility.parameter;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import hudson.model.Run;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * One upstream build offered as a choice, as kept by {@link io.jenkinsci.plugins.opsbox.utility.cache.BuildNameCache}.
+ * The display name is interned since the same build usually appears in several cached lists.
+ *
+ * @param version   parsed form of {@code displayName}, or {@code null} if it is not a version
+ * @param artifacts archived artifacts, or {@code null} if not known without reading the archive
+ */
+public record BuildEntry(int number, @Nonnull String displayName, @CheckForNull VersionKey version,
+                         @CheckForNull ArtifactSummary artifacts) {
+
+    private static final Interner<String> DISPLAY_NAMES = Interners.newWeakInterner();
+
+    // record header, fields and the list slot referencing the entry
+    private static final int OVERHEAD_BYTES = 32;
+    private static final int STRING_OVERHEAD_BYTES = 40;
+
+    /**
+     * Entry of {@code run} with the artifact summary recorded at completion, if any. Never touches the archive.
+     */
+    @Nonnull
+    public static BuildEntry of(@Nonnull Run<?, ?> run) {
+        return of(run.getNumber(), run.getDisplayName(), ArtifactSummaryAction.recorded(run));
+    }
+
+    /**
+     * Entry of {@code run}, listing the archive for builds that completed without a recorded summary.
+     * Only for background work such as {@link io.jenkinsci.plugins.opsbox.utility.index.BuildNameIndex#index}.
+     */
+    @Nonnull
+    public static BuildEntry withArtifacts(@Nonnull Run<?, ?> run) {
+        ArtifactSummary artifacts = ArtifactSummaryAction.recorded(run);
+        return of(run.getNumber(), run.getDisplayName(), artifacts == null ? ArtifactSummary.of(run) : artifacts);
+    }
+
+    @Nonnull
+    public static BuildEntry of(int number, @Nonnull String displayName) {
+        return of(number, displayName, null);
+    }
+
+    @Nonnull
+    public static BuildEntry of(int number, @Nonnull String displayName, @CheckForNull ArtifactSummary artifacts) {
+        return new BuildEntry(number, DISPLAY_NAMES.intern(displayName), VersionKey.of(displayName), artifacts);
+    }
+
+    public int estimateBytes() {
+        return OVERHEAD_BYTES + STRING_OVERHEAD_BYTES + 2 * displayName.length()
+                + (version == null ? 0 : version.estimateBytes())
+                + (artifacts == null ? 0 : artifacts.estimateBytes());
+    }
+}
@@ -0,0 +1,143 @@
+package io.jenkinsci.plugins.opsbox.utility.parameter;
+
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.model.Item;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.RunListener;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tells open "Build with Parameters" pages about newly completed upstream builds.
+ * <p>
+ * Pages poll {@link JobBuildNameParameterDefinition.DescriptorImpl#doPollChoices} every few seconds with
+ * the last sequence number they have seen; a poll never waits, so open pages hold no request thread.
+ * Events are produced by {@link #onCompleted}, so a poll without news costs no upstream scan at all.
+ * <p>
+ * Sequence numbers are drawn from one counter for all jobs, seeded from the clock at startup. They keep
+ * growing when a job's channel is dropped and recreated, or across a restart, so a page rendered before
+ * either still sees the builds completed after it.
+ */
+@Extension
+public class BuildNameEvents extends RunListener<Run<?, ?>> {
+
+    static final int HISTORY_SIZE = 16;
+
+    private final Map<String, Channel> channels = new ConcurrentHashMap<>();
+    // leaves room for a thousand events per millisecond of uptime before a restart could reuse a number
+    private final AtomicLong sequences = new AtomicLong(System.currentTimeMillis() * 1000);
+
+    @Nonnull
+    public static BuildNameEvents get() {
+        return ExtensionList.lookupSingleton(BuildNameEvents.class);
+    }
+
+    @Override
+    public void onCompleted(Run<?, ?> run, @Nonnull TaskListener listener) {
+        ResultClass result = ResultClass.of(run.getResult());
+        if (result == null) {
+            return;
+        }
+        // nobody has rendered a parameter for this job yet, so nobody can be polling for it
+        Channel channel = channels.get(run.getParent().getFullName());
+        if (channel != null) {
+            channel.publish(sequences, run.getNumber(), run.getDisplayName(), result);
+        }
+    }
+
+    /**
+     * Current sequence number of the given upstream job, to be embedded in the rendered page.
+     */
+    public long getSequence(@Nonnull String jobFullName) {
+        return channel(jobFullName).sequence();
+    }
+
+    /**
+     * The events of the given upstream job after {@code since}. Returns at once.
+     */
+    @Nonnull
+    public Poll since(@Nonnull String jobFullName, long since) {
+        return channel(jobFullName).since(since);
+    }
+
+    void forget(String jobFullName) {
+        channels.remove(jobFullName);
+    }
+
+    private Channel channel(String jobFullName) {
+        // a fresh number, so that pages which polled an earlier channel of the job tell they may have missed builds
+        return channels.computeIfAbsent(jobFullName, k -> new Channel(sequences.incrementAndGet()));
+    }
+
+    /**
+     * A completed build; pollers drop those their {@link BuildSelection} does not accept.
+     */
+    public record Event(long sequence, int number, String displayName, ResultClass result) {
+    }
+
+    /**
+     * @param sequence the sequence number to poll from next time
+     * @param missed   whether events after the given sequence number may no longer be known, because they
+     *                 were dropped from the history, or published before the channel was (re)created
+     */
+    public record Poll(long sequence, @Nonnull List<Event> events, boolean missed) {
+    }
+
+    private static final class Channel {
+        private final Deque<Event> recent = new ArrayDeque<>(HISTORY_SIZE);
+        private long sequence;
+        // events numbered above this are all in recent
+        private long dropped;
+
+        Channel(long created) {
+            this.sequence = created;
+            this.dropped = created;
+        }
+
+        synchronized void publish(AtomicLong sequences, int number, String displayName, ResultClass result) {
+            if (recent.size() == HISTORY_SIZE) {
+                dropped = recent.removeFirst().sequence();
+            }
+            sequence = sequences.incrementAndGet();
+            recent.addLast(new Event(sequence, number, displayName, result));
+        }
+
+        synchronized long sequence() {
+            return sequence;
+        }
+
+        synchronized Poll since(long since) {
+            List<Event> events = new ArrayList<>();
+            for (Event event : recent) {
+                if (event.sequence() > since) {
+                    events.add(event);
+                }
+            }
+            // a number from the future was handed out before a restart with the clock set back
+            return new Poll(sequence, events, since < dropped || since > sequence);
+        }
+    }
+
+    @Extension
+    public static class JobListener extends ItemListener {
+        @Override
+        public void onDeleted(Item item) {
+            BuildNameEvents.get().forget(item.getFullName());
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            BuildNameEvents.get().forget(oldFullName);
+        }
+    }
+}
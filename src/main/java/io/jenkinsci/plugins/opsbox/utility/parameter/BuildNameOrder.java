@@ -0,0 +1,76 @@
+package io.jenkinsci.plugins.opsbox.utility.parameter;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * How the choices of a {@link JobBuildNameParameterDefinition} are ordered.
+ */
+public enum BuildNameOrder {
+
+    /**
+     * Newest build first, the historical behaviour.
+     */
+    BUILD_NUMBER,
+
+    /**
+     * Highest semantic version first, see {@link VersionKey}. Builds whose display name is not
+     * a version come last, newest first; equal versions are ordered by build number.
+     */
+    VERSION;
+
+    /**
+     * Number of eligible builds examined per requested choice when ordering by version, so that a
+     * rebuilt or backported older version cannot push a newer one out of the list.
+     */
+    static final int VERSION_SCAN_FACTOR = 10;
+
+    private static final Comparator<BuildEntry> BY_VERSION = Comparator
+            .comparing(BuildEntry::version, Comparator.nullsFirst(Comparator.<VersionKey>naturalOrder()))
+            .thenComparingInt(BuildEntry::number);
+
+    public String getDisplayName() {
+        return this == VERSION ? Messages.BuildNameOrder_Version() : Messages.BuildNameOrder_BuildNumber();
+    }
+
+    /**
+     * How many eligible builds to collect to answer a request for {@code countLimit} choices,
+     * at most {@link Integer#MAX_VALUE}.
+     */
+    int scanLimit(int countLimit) {
+        checkCountLimit(countLimit);
+        return this == VERSION ? (int) Math.min((long) countLimit * VERSION_SCAN_FACTOR, Integer.MAX_VALUE) : countLimit;
+    }
+
+    /**
+     * Selects the first {@code countLimit} entries of {@code candidates} in this order.
+     * {@code candidates} must be in build number order, newest first.
+     */
+    @Nonnull
+    List<BuildEntry> top(@Nonnull List<BuildEntry> candidates, int countLimit) {
+        checkCountLimit(countLimit);
+        if (this == BUILD_NUMBER) {
+            return candidates.size() <= countLimit ? candidates : new ArrayList<>(candidates.subList(0, countLimit));
+        }
+        // bounded min-heap: O(n log k) using the keys parsed once per entry
+        PriorityQueue<BuildEntry> heap = new PriorityQueue<>(Math.min(countLimit, candidates.size()) + 1, BY_VERSION);
+        for (BuildEntry candidate : candidates) {
+            heap.add(candidate);
+            if (heap.size() > countLimit) {
+                heap.poll();
+            }
+        }
+        List<BuildEntry> top = new ArrayList<>(heap);
+        top.sort(BY_VERSION.reversed());
+        return top;
+    }
+
+    private static void checkCountLimit(int countLimit) {
+        if (countLimit <= 0) {
+            throw new IllegalArgumentException("Count limit must be positive: " + countLimit);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package io.jenkinsci.plugins.opsbox.utility.parameter;
+
+import hudson.Util;
+import hudson.model.Run;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Which completed upstream builds are eligible as choices: the accepted results and, optionally,
+ * only builds marked "keep this build forever".
+ *
+ * @param results  accepted results, never empty
+ * @param keptOnly whether only builds with {@link Run#isKeepLog()} are eligible
+ */
+public record BuildSelection(@Nonnull Set<ResultClass> results, boolean keptOnly) {
+
+    /**
+     * Successful builds, kept or not; the historical behaviour.
+     */
+    public static final BuildSelection DEFAULT = new BuildSelection(EnumSet.of(ResultClass.SUCCESS), false);
+
+    public BuildSelection {
+        if (results.isEmpty()) {
+            throw new IllegalArgumentException("At least one result must be accepted");
+        }
+        results = Set.copyOf(results);
+    }
+
+    /**
+     * Parses comma separated result names such as {@code SUCCESS, UNSTABLE}, case insensitively.
+     * A blank value stands for {@link ResultClass#SUCCESS}.
+     *
+     * @throws IllegalArgumentException if a name is not a {@link ResultClass}
+     */
+    @Nonnull
+    public static Set<ResultClass> parseResults(@CheckForNull String results) {
+        return parseResults(results, name -> {
+            throw new IllegalArgumentException("No result named " + name);
+        });
+    }
+
+    /**
+     * Like {@link #parseResults(String)}, but skips names that are not a {@link ResultClass} after handing
+     * them to {@code unknown}. Falls back to {@link ResultClass#SUCCESS} if no name is left.
+     */
+    @Nonnull
+    public static Set<ResultClass> parseResults(@CheckForNull String results, @Nonnull Consumer<String> unknown) {
+        Set<ResultClass> parsed = EnumSet.noneOf(ResultClass.class);
+        String value = Util.fixEmptyAndTrim(results);
+        if (value == null) {
+            return EnumSet.of(ResultClass.SUCCESS);
+        }
+        for (String name : value.split(",")) {
+            String trimmed = name.trim().toUpperCase(Locale.ROOT);
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            try {
+                parsed.add(ResultClass.valueOf(trimmed));
+            } catch (IllegalArgumentException e) {
+                unknown.accept(name.trim());
+            }
+        }
+        return parsed.isEmpty() ? EnumSet.of(ResultClass.SUCCESS) : parsed;
+    }
+
+    /**
+     * Whether {@code run} has completed with an accepted result and, if required, is kept forever.
+     */
+    public boolean accepts(@Nonnull Run<?, ?> run) {
+        if (run.isBuilding()) {
+            return false;
+        }
+        ResultClass result = ResultClass.of(run.getResult());
+        return result != null && results.contains(result) && (!keptOnly || run.isKeepLog());
+    }
+
+    /**
+     * Canonical form of {@link #results}, in {@link ResultClass} order.
+     */
+    @Nonnull
+    public String formatResults() {
+        return EnumSet.copyOf(results).stream().map(Enum::name).collect(Collectors.joining(","));
+    }
+}
@@ -1,21 +1,45 @@
 package io.jenkinsci.plugins.opsbox.utility.parameter;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import hudson.Extension;
+import hudson.Util;
 import hudson.model.*;
 import hudson.util.FormValidation;
 import hudson.util.RunList;
+import io.jenkinsci.plugins.opsbox.utility.cache.BuildNameCache;
+import io.jenkinsci.plugins.opsbox.utility.cache.LoadShedder;
+import io.jenkinsci.plugins.opsbox.utility.cache.PermissionCache;
+import io.jenkinsci.plugins.opsbox.utility.index.BuildNameIndex;
+import io.jenkinsci.plugins.opsbox.utility.index.DeploymentIndex;
+import io.jenkinsci.plugins.opsbox.utility.index.IndexBuilder;
+import io.jenkinsci.plugins.opsbox.utility.index.IndexUpdateQueue;
+import io.jenkinsci.plugins.opsbox.utility.index.ItemIndex;
+import io.jenkinsci.plugins.opsbox.utility.index.UpstreamJobs;
+import io.jenkinsci.plugins.opsbox.utility.jfr.BuildNamesEvent;
+import io.jenkinsci.plugins.opsbox.utility.jfr.CheckJobNameEvent;
+import io.jenkinsci.plugins.opsbox.utility.jfr.ChoicesEvent;
+import io.jenkinsci.plugins.opsbox.utility.jfr.FindEvent;
+import io.jenkinsci.plugins.opsbox.utility.jfr.LookupEvent;
 import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
 import lombok.Getter;
+import net.sf.json.JSONArray;
 import net.sf.json.JSONObject;
 import org.jenkinsci.Symbol;
 import org.kohsuke.stapler.*;
 import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.verb.GET;
 import org.kohsuke.stapler.verb.POST;
-import org.acegisecurity.AccessDeniedException;
 
+import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.logging.Logger;
 
 public class JobBuildNameParameterDefinition extends SimpleParameterDefinition {
@@ -24,10 +48,17 @@ public class JobBuildNameParameterDefinition extends SimpleParameterDefinition {
 
     private static final String DEFAULT_BUILD_NAME = "0.0.1-1+999";
     private static final int DEFAULT_COUNT_LIMIT = 5;
+    // builds examined for a value that is not among the cached eligible names
+    private static final int VALIDATION_LOOKUP_LIMIT = 1000;
 
     @Getter
     private String jobName;
     private int countLimit;
+    private BuildNameOrder order;
+    private String artifactFilter;
+    private String acceptedResults;
+    private boolean keptBuildsOnly;
+    private boolean strictValidation;
 
     private final String defaultValue;
 
@@ -48,6 +79,82 @@ public class JobBuildNameParameterDefinition extends SimpleParameterDefinition {
         this.countLimit = countLimit;
     }
 
+    @Nonnull
+    public BuildNameOrder getOrder() {
+        return order == null ? BuildNameOrder.BUILD_NUMBER : order;
+    }
+
+    @DataBoundSetter
+    public void setOrder(BuildNameOrder order) {
+        this.order = order;
+    }
+
+    /**
+     * Comma separated Ant style patterns; only builds that archived a matching artifact are offered.
+     */
+    @CheckForNull
+    public String getArtifactFilter() {
+        return artifactFilter;
+    }
+
+    @DataBoundSetter
+    public void setArtifactFilter(String artifactFilter) {
+        this.artifactFilter = Util.fixEmptyAndTrim(artifactFilter);
+    }
+
+    /**
+     * Comma separated {@link ResultClass} names of the builds offered, {@code SUCCESS} by default.
+     */
+    @Nonnull
+    public String getAcceptedResults() {
+        return acceptedResults == null ? ResultClass.SUCCESS.name() : acceptedResults;
+    }
+
+    /**
+     * Unknown names are dropped with a warning rather than failing the save; the form flags them through
+     * {@link DescriptorImpl#doCheckAcceptedResults}.
+     */
+    @DataBoundSetter
+    public void setAcceptedResults(String acceptedResults) {
+        String canonical = new BuildSelection(BuildSelection.parseResults(acceptedResults,
+                name -> LOG.warning("Ignoring unknown accepted result '" + name + "' of parameter " + getName())),
+                false).formatResults();
+        this.acceptedResults = ResultClass.SUCCESS.name().equals(canonical) ? null : canonical;
+    }
+
+    /**
+     * Whether only builds marked "keep this build forever" are offered.
+     */
+    public boolean isKeptBuildsOnly() {
+        return keptBuildsOnly;
+    }
+
+    @DataBoundSetter
+    public void setKeptBuildsOnly(boolean keptBuildsOnly) {
+        this.keptBuildsOnly = keptBuildsOnly;
+    }
+
+    /**
+     * Whether triggered values must be the display name of an eligible upstream build.
+     */
+    public boolean isStrictValidation() {
+        return strictValidation;
+    }
+
+    @DataBoundSetter
+    public void setStrictValidation(boolean strictValidation) {
+        this.strictValidation = strictValidation;
+    }
+
+    @Nonnull
+    public BuildSelection getSelection() {
+        if (acceptedResults == null && !keptBuildsOnly) {
+            return BuildSelection.DEFAULT;
+        }
+        // stored values were normalized by the setter, unless the configuration was edited by hand
+        return new BuildSelection(BuildSelection.parseResults(acceptedResults, name -> { }), keptBuildsOnly);
+    }
+
     public JobBuildNameParameterDefinition(String name, String jobName, int countLimit, String defaultValue, String description) {
         super(name, description);
         this.jobName = jobName;
@@ -56,68 +163,256 @@ public class JobBuildNameParameterDefinition extends SimpleParameterDefinition {
     }
 
     private static <T extends Item> T find(String jobName, Class<T> type) {
+        return find(jobName, type, null);
+    }
+
+    /**
+     * @param parent event of the caller, told whether the lookup hit
+     */
+    private static <T extends Item> T find(String jobName, Class<T> type, @CheckForNull LookupEvent parent) {
+        FindEvent event = new FindEvent();
+        event.begin();
         Jenkins jenkins = Jenkins.getInstance();
         // direct search, can be used to find folder based items <folder>/<folder>/<jobName>
         T item = jenkins.getItemByFullName(jobName, type);
+        event.cacheHit = true;
+        if (item == null && IndexBuilder.get().isReady()) {
+            item = ItemIndex.get().find(jobName, type);
+        }
         if (item == null) {
+            event.cacheHit = false;
             // not found in a direct search, search in all items since the item might be in a folder but given without folder structure
-            // (to keep it backwards compatible)
+            // (to keep it backwards compatible); the index is only a hint and may miss an item it has not caught up with
             for (T allItem : jenkins.getAllItems(type)) {
+                event.itemsExamined++;
                 if (allItem.getName().equals(jobName)) {
                     item = allItem;
                     break;
                 }
             }
         }
+        event.jobName = jobName;
+        event.found = item != null;
+        event.commit();
+        if (parent != null) {
+            parent.cacheHit = event.cacheHit;
+        }
         return item;
     }
 
-    private static List<String> getBuildNames(String jobName, int countLimit) {
+    /**
+     * The upstream lookup behind {@link #getChoices()}. Definitions with equal queries offer the same choices,
+     * which lets callers rendering many parameters at once compute each list only once.
+     */
+    @Nonnull
+    public UpstreamQuery getQuery() {
+        return new UpstreamQuery(jobName, getCountLimit(), getOrder(), artifactFilter, getSelection());
+    }
+
+    /**
+     * Like {@link #getQuery()}, but naming the upstream job by the full name it resolves to, so that parameters
+     * referring to the same job with and without its folder path are recognized as equal.
+     */
+    @Nonnull
+    public UpstreamQuery getResolvedQuery() {
+        UpstreamQuery query = getQuery();
+        Job job = find(jobName, Job.class);
+        return job == null ? query : new UpstreamQuery(job.getFullName(), query.countLimit(), query.order(),
+                query.artifactFilter(), query.selection());
+    }
+
+    private static Choices choicesOf(UpstreamQuery query, ChoicesEvent event) {
+        Choices choices = getBuildNames(query, event);
+        if (choices.names().isEmpty()) {
+            choices.names().add(DEFAULT_BUILD_NAME);
+        }
+        return choices;
+    }
+
+    private static Choices getBuildNames(UpstreamQuery query, ChoicesEvent parent) {
+        BuildNamesEvent event = new BuildNamesEvent();
+        event.begin();
+        event.jobName = query.jobName();
+        try {
+            Choices choices = computeBuildNames(query, event);
+            event.stale = choices.isStale();
+            event.buildNameCount = choices.names().size();
+            return choices;
+        } finally {
+            event.commit();
+            parent.cacheHit = event.cacheHit;
+            parent.buildsExamined = event.buildsExamined;
+        }
+    }
+
+    private static Choices computeBuildNames(UpstreamQuery query, BuildNamesEvent event) {
+        String jobName = query.jobName();
+        int countLimit = query.countLimit();
+        BuildNameOrder order = query.order();
+        String artifactFilter = query.artifactFilter();
+        BuildSelection selection = query.selection();
+
         Job job = find(jobName, Job.class);
-        if (job == null) {
-            return new ArrayList<>();
+        // a negative limit configured by hand offers no builds, as it always did
+        if (job == null || countLimit <= 0) {
+            return new Choices(new ArrayList<>(), 0);
         }
         
         // Check permissions on the target job
-        try {
-            job.checkPermission(Item.READ);
-        } catch (AccessDeniedException e) {
-            LOG.warning("No permission to access job '" + jobName + "': " + e.getMessage());
-            return new ArrayList<>();
+        if (!PermissionCache.get().canRead(job)) {
+            LOG.fine("No permission to access job '" + jobName + "'");
+            return new Choices(new ArrayList<>(), 0);
         }
-        
-        List<String> buildNames = new ArrayList<>();
-        RunList<Run> runList = job.getBuilds().newBuilds();
 
-        for (Run run: runList) {
-            if (buildNames.size() >= countLimit) {
-                break;
+        UpstreamJobs.get().add(job.getFullName());
+        // builds changed since the last batch must not be served from the cache
+        IndexUpdateQueue.get().flush(job.getFullName());
+        BuildNameCache.Key key = new BuildNameCache.Key(job.getFullName(), countLimit, order, artifactFilter, selection);
+        event.cacheHit = true;
+        LoadShedder.Result result = BuildNameCache.get().load(key, () -> {
+            event.cacheHit = false;
+            return order.top(recentBuilds(job, selection, order.scanLimit(countLimit), artifactFilter, event), countLimit);
+        });
+
+        List<String> buildNames = new ArrayList<>(result.entries().size());
+        for (BuildEntry entry : result.entries()) {
+            buildNames.add(entry.displayName());
+        }
+        return new Choices(buildNames, result.staleMillis());
+    }
+
+    /**
+     * Up to {@code limit} builds eligible under {@code selection}, newest first. With an artifact filter only
+     * matching builds are returned, looking no further back than the {@link BuildNameIndex#DEPTH} most recent
+     * eligible builds. The builds read are counted on {@code event}.
+     */
+    private static List<BuildEntry> recentBuilds(Job job, BuildSelection selection, int limit, String artifactFilter,
+                                                 BuildNamesEvent event) {
+        if (IndexBuilder.get().isReady()) {
+            int window = artifactFilter == null ? limit : BuildNameIndex.DEPTH;
+            List<BuildEntry> indexed = BuildNameIndex.get().recentBuilds(job.getFullName(), selection, window);
+            if (indexed != null) {
+                event.indexed = true;
+                event.buildsExamined = indexed.size();
+                return artifactFilter == null ? indexed : matching(job, indexed, limit, artifactFilter);
             }
+            IndexBuilder.get().scheduleIndex(job);
+        }
+        return scanBuilds(job, selection, limit, artifactFilter, event);
+    }
 
-            if (run.isBuilding()) {
-                continue;
+    private static List<BuildEntry> matching(Job job, List<BuildEntry> entries, int limit, String artifactFilter) {
+        List<BuildEntry> matching = new ArrayList<>();
+        for (BuildEntry entry : entries) {
+            if (matching.size() >= limit) {
+                break;
             }
+            if (entry.artifacts() == null) {
+                IndexBuilder.get().scheduleArtifactSummary(job, entry.number());
+            } else if (entry.artifacts().matches(artifactFilter)) {
+                matching.add(entry);
+            }
+        }
+        return matching;
+    }
 
-            Result result = run.getResult();
+    /**
+     * Whether the recorded artifact summary of {@code run} matches. A build without one does not match until
+     * it has been recorded in the background, since listing an archive is too slow for a request thread.
+     */
+    private static boolean hasMatchingArtifact(Run run, String artifactFilter) {
+        ArtifactSummary artifacts = ArtifactSummaryAction.recorded(run);
+        if (artifacts == null) {
+            IndexBuilder.get().scheduleArtifactSummary(run.getParent(), run.getNumber());
+            return false;
+        }
+        return artifacts.matches(artifactFilter);
+    }
+
+    private static List<BuildEntry> scanBuilds(Job job, BuildSelection selection, int scanLimit, String artifactFilter,
+                                               BuildNamesEvent event) {
+        List<BuildEntry> builds = new ArrayList<>();
+        RunList<Run> runList = job.getBuilds().newBuilds();
+        int examined = 0;
+
+        for (Run run: runList) {
+            if (builds.size() >= scanLimit || (artifactFilter != null && examined >= BuildNameIndex.DEPTH)) {
+                break;
+            }
 
-            if (result != null && result.isBetterOrEqualTo(Result.SUCCESS)) {
-                buildNames.add(run.getDisplayName());
+            event.buildsExamined++;
+            if (selection.accepts(run)) {
+                examined++;
+                if (artifactFilter == null || hasMatchingArtifact(run, artifactFilter)) {
+                    builds.add(BuildEntry.of(run));
+                }
             }
         }
 
-        return buildNames;
+        return builds;
     }
 
     @Exported
     public List<String> getChoices() {
-        List<String> choices = getBuildNames(this.jobName, this.countLimit);
-        if (choices.isEmpty()) {
-            choices.add(DEFAULT_BUILD_NAME);
-        }
+        return getChoiceList().getNames();
+    }
+
+    /**
+     * The choices along with their age, used by {@code index.jelly} to tell when a busy controller served
+     * the last known list instead of computing it.
+     */
+    @Nonnull
+    public Choices getChoiceList() {
+        ChoicesEvent event = new ChoicesEvent();
+        event.begin();
+        Choices choices = choicesOf(getQuery(), event);
 
+        event.end();
+        if (event.shouldCommit()) {
+            event.parameterName = getName();
+            event.jobName = jobName;
+            event.stale = choices.isStale();
+            event.choiceCount = choices.names().size();
+            event.commit();
+        }
         return choices;
     }
 
+    /**
+     * Last build per value of this parameter of the job whose page is being rendered, used by
+     * {@code index.jelly} to show which choices were already deployed.
+     */
+    @Nonnull
+    public Map<String, DeploymentIndex.Deployment> getDeployments() {
+        Job<?, ?> job = owner();
+        return job == null ? Map.of() : DeploymentIndex.get().deployments(job, getName());
+    }
+
+    /**
+     * Full name of the job whose page is being rendered, used by {@code index.jelly} to let
+     * {@link DescriptorImpl#doPollChoices} look this parameter up again; empty outside of a job page.
+     */
+    @Nonnull
+    public String getOwnerFullName() {
+        Job<?, ?> job = owner();
+        return job == null ? "" : job.getFullName();
+    }
+
+    @CheckForNull
+    private static Job<?, ?> owner() {
+        StaplerRequest req = Stapler.getCurrentRequest();
+        return req == null ? null : req.findAncestorObject(Job.class);
+    }
+
+    /**
+     * Sequence number of the last completed upstream build seen by {@link BuildNameEvents},
+     * used by {@code index.jelly} as the starting point for live choice updates.
+     */
+    public long getLiveSequence() {
+        Job job = find(this.jobName, Job.class);
+        return job == null ? 0 : BuildNameEvents.get().getSequence(job.getFullName());
+    }
+
     @Override
     public StringParameterValue getDefaultParameterValue() {
         List<String> choices = getChoices();
@@ -128,18 +423,119 @@ public class JobBuildNameParameterDefinition extends SimpleParameterDefinition {
     public ParameterValue createValue(StaplerRequest req, JSONObject jo) {
         StringParameterValue value = req.bindJSON(StringParameterValue.class, jo);
         value.setDescription(getDescription());
+        checkValue(value.getValue());
         return value;
     }
 
     @Override
     public StringParameterValue createValue(String value) {
+        checkValue(value);
         return new StringParameterValue(getName(), value, getDescription());
     }
 
+    @Override
+    public boolean isValid(ParameterValue value) {
+        return !strictValidation || (value instanceof StringParameterValue stringValue && isAllowed(stringValue.getValue()));
+    }
+
+    private void checkValue(String value) {
+        if (strictValidation && !isAllowed(value)) {
+            throw new IllegalArgumentException("Illegal value for parameter " + getName() + ": '" + value
+                    + "' is not the name of an eligible build of job '" + jobName + "'");
+        }
+    }
+
+    /**
+     * Whether {@code value} is the default value or the display name of an eligible upstream build.
+     * Checked against the cached names of the {@link BuildNameIndex#DEPTH} most recent eligible builds,
+     * then against the {@value #VALIDATION_LOOKUP_LIMIT} most recent builds.
+     */
+    boolean isAllowed(String value) {
+        if (value == null) {
+            return false;
+        }
+        if (value.equals(defaultValue) || value.equals(DEFAULT_BUILD_NAME)) {
+            return true;
+        }
+        Job job = find(jobName, Job.class);
+        if (job == null || !PermissionCache.get().canRead(job)) {
+            return false;
+        }
+
+        BuildSelection selection = getSelection();
+        IndexUpdateQueue.get().flush(job.getFullName());
+        BuildNameCache.Key key = new BuildNameCache.Key(job.getFullName(), BuildNameIndex.DEPTH,
+                BuildNameOrder.BUILD_NUMBER, artifactFilter, selection);
+        BuildNamesEvent event = new BuildNamesEvent();
+        event.begin();
+        event.jobName = jobName;
+        event.cacheHit = true;
+        Set<String> names = BuildNameCache.get().getNames(key, () -> {
+            event.cacheHit = false;
+            return recentBuilds(job, selection, BuildNameIndex.DEPTH, artifactFilter, event);
+        });
+        event.buildNameCount = names.size();
+        event.commit();
+        if (names.contains(value)) {
+            return true;
+        }
+        return lookupBuild(job, value, selection, artifactFilter);
+    }
+
+    private static boolean lookupBuild(Job job, String displayName, BuildSelection selection, String artifactFilter) {
+        RunList<Run> runs = job.getBuilds().limit(VALIDATION_LOOKUP_LIMIT);
+        for (Run run : runs) {
+            if (displayName.equals(run.getDisplayName()) && selection.accepts(run)
+                    && (artifactFilter == null || hasMatchingArtifact(run, artifactFilter))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public record UpstreamQuery(String jobName, int countLimit, @Nonnull BuildNameOrder order, String artifactFilter,
+                                @Nonnull BuildSelection selection) {
+    }
+
+    /**
+     * Build names offered as choices.
+     *
+     * @param staleMillis age of the last known list served while shedding load, {@code 0} if it is current
+     */
+    public record Choices(@Nonnull List<String> names, long staleMillis) {
+
+        @Nonnull
+        public List<String> getNames() {
+            return names;
+        }
+
+        public boolean isStale() {
+            return staleMillis > 0;
+        }
+
+        public String getStaleNote() {
+            return Messages.JobBuildNameParameterDefinition_StaleChoices(Util.getTimeSpanString(staleMillis));
+        }
+    }
+
     @Extension
     @Symbol({"jobBuildNameParam"})
     public static class DescriptorImpl extends ParameterDescriptor {
 
+        // pages poll every 15 seconds; polls of one user for one parameter closer together than this are rejected
+        static final long MIN_POLL_INTERVAL_MILLIS = SystemProperties.getLong(
+                JobBuildNameParameterDefinition.class.getName() + ".minPollIntervalMillis", 10_000L);
+
+        private static final long MAX_POLLERS = 10_000;
+
+        // user, job and parameter of the recent polls, expiring once they may poll again
+        private final Cache<String, Boolean> recentPolls = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(Math.max(MIN_POLL_INTERVAL_MILLIS, 1)))
+                .maximumSize(MAX_POLLERS)
+                .build();
+
+        private volatile long minPollIntervalMillis = MIN_POLL_INTERVAL_MILLIS;
+
         @Nonnull
         @Override
         public String getDisplayName() {
@@ -150,18 +546,106 @@ public class JobBuildNameParameterDefinition extends SimpleParameterDefinition {
         public FormValidation doCheckJobName(@QueryParameter String jobName, @AncestorInPath Item item) {
             String errorMsg = "Job doesn't exist.";
 
-            Job job = JobBuildNameParameterDefinition.find(jobName, Job.class);
-            if (job == null) {
-                return FormValidation.error(errorMsg);
+            CheckJobNameEvent event = new CheckJobNameEvent();
+            event.begin();
+            event.jobName = jobName;
+            try {
+                Job job = JobBuildNameParameterDefinition.find(jobName, Job.class, event);
+                if (job == null) {
+                    return FormValidation.error(errorMsg);
+                }
+                event.found = true;
+
+                // Check permissions on the target job, not the current context
+                if (!PermissionCache.get().canRead(job)) {
+                    return FormValidation.error("No permission to access job '" + jobName + "'");
+                }
+                event.readable = true;
+                return FormValidation.ok();
+            } finally {
+                event.commit();
             }
-            
-            // Check permissions on the target job, not the current context
+        }
+
+        public FormValidation doCheckAcceptedResults(@QueryParameter String value) {
             try {
-                job.checkPermission(Item.READ);
+                BuildSelection.parseResults(value);
                 return FormValidation.ok();
-            } catch (AccessDeniedException e) {
-                return FormValidation.error("No permission to access job '" + jobName + "'");
+            } catch (IllegalArgumentException e) {
+                return FormValidation.error("Unknown result in '" + value + "', expected any of SUCCESS, UNSTABLE, FAILURE, ABORTED");
             }
         }
+
+        /**
+         * Poll endpoint used by {@code liveChoices.js}, answering at once. The parameter is looked up on the job
+         * whose page polls, so the choices are computed with its configuration rather than anything the page sends.
+         * When an upstream build of an accepted result completed after {@code since}, or the page may have missed
+         * some, the response carries the current choices; otherwise just the sequence to poll from. A page polling
+         * again within {@link #MIN_POLL_INTERVAL_MILLIS} is answered with 429 and told when to retry.
+         */
+        @GET
+        public HttpResponse doPollChoices(@QueryParameter String job, @QueryParameter String name,
+                                          @QueryParameter long since) {
+            Job<?, ?> owner = Jenkins.get().getItemByFullName(job, Job.class);
+            if (owner == null || !owner.hasPermission(Item.READ)) {
+                return HttpResponses.notFound();
+            }
+            ParametersDefinitionProperty property = owner.getProperty(ParametersDefinitionProperty.class);
+            ParameterDefinition definition = property == null ? null : property.getParameterDefinition(name);
+            if (!(definition instanceof JobBuildNameParameterDefinition parameter)) {
+                return HttpResponses.notFound();
+            }
+            UpstreamQuery query = parameter.getResolvedQuery();
+            Job upstream = JobBuildNameParameterDefinition.find(query.jobName(), Job.class);
+            if (upstream == null || !PermissionCache.get().canRead(upstream)) {
+                return HttpResponses.notFound();
+            }
+            if (!tryPoll(owner, parameter)) {
+                return tooManyRequests();
+            }
+
+            BuildNameEvents.Poll poll = BuildNameEvents.get().since(upstream.getFullName(), since);
+            boolean changed = poll.missed();
+            for (BuildNameEvents.Event event : poll.events()) {
+                changed |= query.selection().results().contains(event.result());
+            }
+
+            JSONObject response = new JSONObject();
+            response.put("sequence", poll.sequence());
+            if (changed) {
+                // filters beyond the result are applied by the (cached) choice computation
+                response.put("choices", JSONArray.fromObject(choicesOf(query, new ChoicesEvent()).names()));
+            }
+            return HttpResponses.okJSON(response);
+        }
+
+        private boolean tryPoll(Job<?, ?> owner, JobBuildNameParameterDefinition parameter) {
+            if (minPollIntervalMillis <= 0) {
+                return true;
+            }
+            String key = Jenkins.getAuthentication2().getName() + '\n' + owner.getFullName() + '\n' + parameter.getName();
+            return recentPolls.asMap().putIfAbsent(key, Boolean.TRUE) == null;
+        }
+
+        private HttpResponse tooManyRequests() {
+            long retryAfterSeconds = Math.max(1, (minPollIntervalMillis + 999) / 1000);
+            return new HttpResponse() {
+                @Override
+                public void generateResponse(StaplerRequest req, StaplerResponse rsp, Object node) throws IOException {
+                    rsp.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+                    rsp.sendError(429, "Polled too often, retry in " + retryAfterSeconds + " seconds");
+                }
+            };
+        }
+
+        /**
+         * Applies a new minimum poll interval, {@code 0} to accept every poll.
+         */
+        void setMinPollIntervalMillis(long minPollIntervalMillis) {
+            this.minPollIntervalMillis = minPollIntervalMillis;
+            recentPolls.policy().expireAfterWrite()
+                    .ifPresent(expiration -> expiration.setExpiresAfter(Duration.ofMillis(Math.max(minPollIntervalMillis, 1))));
+            recentPolls.invalidateAll();
+        }
     }
 }
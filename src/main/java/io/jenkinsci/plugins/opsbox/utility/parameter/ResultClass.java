@@ -0,0 +1,38 @@
+package io.jenkinsci.plugins.opsbox.utility.parameter;
+
+import hudson.model.Result;
+
+import javax.annotation.CheckForNull;
+
+/**
+ * Results of completed upstream builds that can be offered as choices, see {@link BuildSelection}.
+ */
+public enum ResultClass {
+    SUCCESS,
+    UNSTABLE,
+    FAILURE,
+    ABORTED;
+
+    /**
+     * Class of {@code result}, or {@code null} for a build that is still running or was not built.
+     */
+    @CheckForNull
+    public static ResultClass of(@CheckForNull Result result) {
+        if (result == null) {
+            return null;
+        }
+        if (result == Result.SUCCESS) {
+            return SUCCESS;
+        }
+        if (result == Result.UNSTABLE) {
+            return UNSTABLE;
+        }
+        if (result == Result.FAILURE) {
+            return FAILURE;
+        }
+        if (result == Result.ABORTED) {
+            return ABORTED;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,169 @@
+package io.jenkinsci.plugins.opsbox.utility.parameter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compact, comparable form of a build display name shaped like a semantic version,
+ * e.g. {@code 0.0.1-1+999} or {@code v1.2.3}.
+ * <p>
+ * Precedence follows semver: major, minor and patch numerically, a release ranks above its
+ * pre-releases, pre-release identifiers compare numerically when both are numbers and
+ * lexically otherwise, and build metadata ({@code +999}) is ignored.
+ * Parsed keys are memoized by display name, so a rescan of an upstream job only parses
+ * the builds it has not seen before.
+ */
+public final class VersionKey implements Comparable<VersionKey> {
+
+    private static final Pattern VERSION = Pattern.compile(
+            "v?(\\d{1,18})(?:\\.(\\d{1,18}))?(?:\\.(\\d{1,18}))?(?:-([0-9A-Za-z.-]+))?(?:\\+[0-9A-Za-z.-]*)?");
+
+    private static final long MAX_MEMOIZED = 50_000;
+
+    // Caffeine cannot hold null values, so unparseable names map to this marker
+    private static final VersionKey UNPARSEABLE = new VersionKey(0, 0, 0, null, null);
+
+    private static final Cache<String, VersionKey> PARSED = Caffeine.newBuilder()
+            .maximumSize(MAX_MEMOIZED)
+            .build();
+
+    private final long major;
+    private final long minor;
+    private final long patch;
+    // identifiers of the pre-release part; numeric ones are also kept in preNumbers, others are -1 there
+    private final String[] pre;
+    private final long[] preNumbers;
+
+    private VersionKey(long major, long minor, long patch, String[] pre, long[] preNumbers) {
+        this.major = major;
+        this.minor = minor;
+        this.patch = patch;
+        this.pre = pre;
+        this.preNumbers = preNumbers;
+    }
+
+    /**
+     * Returns the key of the given display name, or {@code null} if it does not look like a version.
+     */
+    @CheckForNull
+    public static VersionKey of(@CheckForNull String displayName) {
+        if (displayName == null) {
+            return null;
+        }
+        VersionKey key = PARSED.get(displayName, VersionKey::parse);
+        return key == UNPARSEABLE ? null : key;
+    }
+
+    @Nonnull
+    static VersionKey parse(@Nonnull String displayName) {
+        Matcher m = VERSION.matcher(displayName.trim());
+        if (!m.matches()) {
+            return UNPARSEABLE;
+        }
+        String[] pre = null;
+        long[] preNumbers = null;
+        if (m.group(4) != null) {
+            pre = m.group(4).split("\\.");
+            preNumbers = new long[pre.length];
+            for (int i = 0; i < pre.length; i++) {
+                preNumbers[i] = isNumber(pre[i]) ? Long.parseLong(pre[i]) : -1;
+            }
+        }
+        return new VersionKey(number(m.group(1)), number(m.group(2)), number(m.group(3)), pre, preNumbers);
+    }
+
+    private static long number(String group) {
+        return group == null ? 0 : Long.parseLong(group);
+    }
+
+    private static boolean isNumber(String identifier) {
+        if (identifier.isEmpty() || identifier.length() > 18) {
+            return false;
+        }
+        for (int i = 0; i < identifier.length(); i++) {
+            if (!Character.isDigit(identifier.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Rough heap footprint, used when weighing cache entries.
+     */
+    int estimateBytes() {
+        int bytes = 48;
+        if (pre != null) {
+            bytes += 32 + 16 + 8 * pre.length;
+            for (String identifier : pre) {
+                bytes += 40 + identifier.length();
+            }
+        }
+        return bytes;
+    }
+
+    @Override
+    public int compareTo(@Nonnull VersionKey o) {
+        int c = Long.compare(major, o.major);
+        if (c == 0) {
+            c = Long.compare(minor, o.minor);
+        }
+        if (c == 0) {
+            c = Long.compare(patch, o.patch);
+        }
+        if (c != 0) {
+            return c;
+        }
+        // a release has higher precedence than any of its pre-releases
+        if (pre == null || o.pre == null) {
+            return pre == null ? (o.pre == null ? 0 : 1) : -1;
+        }
+        for (int i = 0; i < Math.min(pre.length, o.pre.length); i++) {
+            c = compareIdentifier(i, o);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return Integer.compare(pre.length, o.pre.length);
+    }
+
+    private int compareIdentifier(int i, VersionKey o) {
+        long a = preNumbers[i];
+        long b = o.preNumbers[i];
+        if (a >= 0 && b >= 0) {
+            return Long.compare(a, b);
+        }
+        // numeric identifiers have lower precedence than alphanumeric ones
+        if (a >= 0 || b >= 0) {
+            return a >= 0 ? -1 : 1;
+        }
+        return pre[i].compareTo(o.pre[i]);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof VersionKey that)) {
+            return false;
+        }
+        return major == that.major && minor == that.minor && patch == that.patch && Arrays.equals(pre, that.pre);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * Long.hashCode(major) + Long.hashCode(minor)) + 31 * Long.hashCode(patch) + Arrays.hashCode(pre);
+    }
+
+    @Override
+    public String toString() {
+        return major + "." + minor + "." + patch + (pre == null ? "" : "-" + String.join(".", pre));
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Keeps the choices of Job Build Name Parameters up to date with upstream builds completed
+ * while the "Build with Parameters" page is open, without reloading the page.
+ */
+(function () {
+    var POLL_INTERVAL_MILLIS = 15000;
+    var RETRY_DELAY_MILLIS = 30000;
+    var MAX_RETRY_DELAY_MILLIS = 300000;
+
+    // selects whose poll came due while the tab was hidden, resumed once it is visible again
+    var paused = [];
+
+    function schedule(select, sequence, delay, failures) {
+        setTimeout(function () { poll(select, sequence, failures); }, delay);
+    }
+
+    function poll(select, sequence, failures) {
+        if (!document.body.contains(select)) {
+            return;
+        }
+        if (document.hidden) {
+            paused.push({ select: select, sequence: sequence });
+            return;
+        }
+        var url = select.dataset.pollUrl
+            + "?job=" + encodeURIComponent(select.dataset.job)
+            + "&name=" + encodeURIComponent(select.dataset.parameterName)
+            + "&since=" + encodeURIComponent(sequence);
+        fetch(url, { credentials: "same-origin" })
+            .then(function (rsp) {
+                if (rsp.status === 429) {
+                    // polled too soon, e.g. from another tab of the same page
+                    var retryAfter = parseInt(rsp.headers.get("Retry-After"), 10);
+                    schedule(select, sequence, Math.max(retryAfter * 1000 || 0, POLL_INTERVAL_MILLIS), failures);
+                    return null;
+                }
+                if (!rsp.ok) {
+                    throw new Error(rsp.status);
+                }
+                return rsp.json();
+            })
+            .then(function (json) {
+                if (!json) {
+                    return;
+                }
+                if (json.data.choices) {
+                    replaceChoices(select, json.data.choices);
+                }
+                schedule(select, json.data.sequence, POLL_INTERVAL_MILLIS, 0);
+            })
+            .catch(function () {
+                // back off while the server keeps failing
+                var delay = Math.min(RETRY_DELAY_MILLIS * Math.pow(2, failures), MAX_RETRY_DELAY_MILLIS);
+                schedule(select, sequence, delay, failures + 1);
+            });
+    }
+
+    /*
+     * Shows the choices in the order computed by the server. Existing options keep their deployment
+     * note, and a choice the user already picked stays available even if it dropped off the list.
+     */
+    function replaceChoices(select, choices) {
+        var existing = {};
+        Array.prototype.forEach.call(select.options, function (option) {
+            existing[option.value] = option;
+        });
+        var selected = select.value;
+        var options = choices.map(function (choice) {
+            var option = existing[choice];
+            if (!option) {
+                option = document.createElement("option");
+                option.value = choice;
+                option.textContent = choice;
+            }
+            return option;
+        });
+        if (selected && choices.indexOf(selected) < 0 && existing[selected]) {
+            options.push(existing[selected]);
+        }
+        select.replaceChildren.apply(select, options);
+        select.value = selected;
+    }
+
+    document.addEventListener("DOMContentLoaded", function () {
+        document.querySelectorAll("select.opsbox-live-choices").forEach(function (select) {
+            // rendered outside of a job page, so there is no parameter to poll for
+            if (!select.dataset.job) {
+                return;
+            }
+            schedule(select, select.dataset.sequence, POLL_INTERVAL_MILLIS, 0);
+        });
+    });
+
+    document.addEventListener("visibilitychange", function () {
+        if (document.hidden) {
+            return;
+        }
+        // the page may have missed builds while hidden, so catch up at once
+        paused.splice(0).forEach(function (entry) {
+            poll(entry.select, entry.sequence, 0);
+        });
+    });
+})();
@@ -1,8 +1,21 @@
 package io.jenkinsci.plugins.opsbox.utility;
 
+import io.jenkinsci.plugins.opsbox.utility.api.BuildNameChoicesActionTest;
+import io.jenkinsci.plugins.opsbox.utility.cache.BuildNameCacheTest;
+import io.jenkinsci.plugins.opsbox.utility.cache.LoadShedderTest;
+import io.jenkinsci.plugins.opsbox.utility.cache.PermissionCacheTest;
 import io.jenkinsci.plugins.opsbox.utility.contributor.ListGitBranchesEnvironmentContributorTest;
+import io.jenkinsci.plugins.opsbox.utility.index.DeploymentIndexTest;
+import io.jenkinsci.plugins.opsbox.utility.index.IndexBuilderTest;
+import io.jenkinsci.plugins.opsbox.utility.index.IndexSnapshotTest;
+import io.jenkinsci.plugins.opsbox.utility.index.IndexUpdateQueueTest;
 import io.jenkinsci.plugins.opsbox.utility.integration.PluginIntegrationTest;
+import io.jenkinsci.plugins.opsbox.utility.jfr.FlightRecorderEventsTest;
+import io.jenkinsci.plugins.opsbox.utility.migration.LegacyClassNameMigrationTest;
+import io.jenkinsci.plugins.opsbox.utility.parameter.ArtifactSummaryTest;
+import io.jenkinsci.plugins.opsbox.utility.parameter.BuildNameEventsTest;
 import io.jenkinsci.plugins.opsbox.utility.parameter.JobBuildNameParameterDefinitionTest;
+import io.jenkinsci.plugins.opsbox.utility.parameter.VersionKeyTest;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
@@ -14,7 +27,20 @@ import org.junit.runners.Suite;
 @Suite.SuiteClasses({
     JobBuildNameParameterDefinitionTest.class,
     ListGitBranchesEnvironmentContributorTest.class,
-    PluginIntegrationTest.class
+    PluginIntegrationTest.class,
+    BuildNameCacheTest.class,
+    PermissionCacheTest.class,
+    BuildNameEventsTest.class,
+    VersionKeyTest.class,
+    BuildNameChoicesActionTest.class,
+    LegacyClassNameMigrationTest.class,
+    IndexBuilderTest.class,
+    ArtifactSummaryTest.class,
+    IndexSnapshotTest.class,
+    IndexUpdateQueueTest.class,
+    DeploymentIndexTest.class,
+    LoadShedderTest.class,
+    FlightRecorderEventsTest.class
 })
 public class OpsboxUtilityPluginTestSuite {
     // 测试套件不需要实现体，注解配置即可
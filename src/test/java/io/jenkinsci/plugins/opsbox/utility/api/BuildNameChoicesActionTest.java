@@ -0,0 +1,103 @@
+package io.jenkinsci.plugins.opsbox.utility.api;
+
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import hudson.model.ParametersDefinitionProperty;
+import io.jenkinsci.plugins.opsbox.utility.cache.BuildNameCache;
+import io.jenkinsci.plugins.opsbox.utility.index.BuildNameIndex;
+import io.jenkinsci.plugins.opsbox.utility.index.IndexUpdateQueue;
+import io.jenkinsci.plugins.opsbox.utility.parameter.JobBuildNameParameterDefinition;
+import net.sf.json.JSONObject;
+import org.htmlunit.HttpMethod;
+import org.htmlunit.WebRequest;
+import org.htmlunit.WebResponse;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.MockFolder;
+
+import java.net.URL;
+
+import static org.junit.Assert.*;
+
+public class BuildNameChoicesActionTest {
+
+    @Rule
+    public JenkinsRule jenkins = new JenkinsRule();
+
+    @Before
+    public void setUp() throws Exception {
+        FreeStyleProject upstream = jenkins.createFreeStyleProject("upstream");
+        for (int i = 1; i <= 2; i++) {
+            FreeStyleBuild build = jenkins.buildAndAssertSuccess(upstream);
+            build.setDisplayName("1.0." + i);
+        }
+        // 预先建立索引，避免后台索引完成时改变版本
+        IndexUpdateQueue.get().flushAll();
+        BuildNameIndex.get().index(upstream);
+
+        // 两个部署作业引用同一个上游作业
+        for (String name : new String[]{"deploy-a", "deploy-b"}) {
+            FreeStyleProject deploy = jenkins.createFreeStyleProject(name);
+            deploy.addProperty(new ParametersDefinitionProperty(
+                    new JobBuildNameParameterDefinition("BUILD_NAME", "upstream", "")));
+        }
+    }
+
+    @Test
+    public void testChoicesOfManyJobs() throws Exception {
+        JSONObject json = jenkins.getJSON(BuildNameChoicesAction.URL_NAME
+                + "/choices?job=deploy-a&jobs=deploy-b,missing").getJSONObject();
+
+        JSONObject jobs = json.getJSONObject("jobs");
+        JSONObject parameter = jobs.getJSONObject("deploy-a").getJSONObject("BUILD_NAME");
+        assertEquals("upstream", parameter.getString("jobName"));
+        assertEquals("1.0.2", parameter.getJSONArray("choices").getString(0));
+        assertEquals(parameter, jobs.getJSONObject("deploy-b").getJSONObject("BUILD_NAME"));
+        assertTrue(jobs.getJSONObject("missing").isNullObject());
+    }
+
+    @Test
+    public void testSameUpstreamIsComputedOnce() throws Exception {
+        MockFolder folder = jenkins.createFolder("team");
+        FreeStyleProject upstream = folder.createProject(FreeStyleProject.class, "service");
+        jenkins.buildAndAssertSuccess(upstream).setDisplayName("2.0.0");
+        FreeStyleProject deploy = jenkins.createFreeStyleProject("deploy-service");
+        // 同一个上游作业，一个带文件夹路径，一个不带
+        deploy.addProperty(new ParametersDefinitionProperty(
+                new JobBuildNameParameterDefinition("FULL", "team/service", ""),
+                new JobBuildNameParameterDefinition("SHORT", "service", "")));
+
+        long requests = BuildNameCache.get().getStats().requestCount();
+        JSONObject jobs = jenkins.getJSON(BuildNameChoicesAction.URL_NAME + "/choices?job=deploy-service")
+                .getJSONObject().getJSONObject("jobs");
+        assertEquals(1, BuildNameCache.get().getStats().requestCount() - requests);
+        assertEquals("2.0.0", jobs.getJSONObject("deploy-service").getJSONObject("SHORT").getJSONArray("choices").getString(0));
+        assertEquals(jobs.getJSONObject("deploy-service").getJSONObject("FULL").getJSONArray("choices"),
+                jobs.getJSONObject("deploy-service").getJSONObject("SHORT").getJSONArray("choices"));
+    }
+
+    @Test
+    public void testUnchangedResultIsNotModified() throws Exception {
+        JenkinsRule.WebClient wc = jenkins.createWebClient();
+        wc.setThrowExceptionOnFailingStatusCode(false);
+        URL url = new URL(jenkins.getURL(), BuildNameChoicesAction.URL_NAME + "/choices?job=deploy-a");
+
+        WebResponse first = wc.loadWebResponse(new WebRequest(url, HttpMethod.GET));
+        assertEquals(200, first.getStatusCode());
+        String etag = first.getResponseHeaderValue("ETag");
+        assertNotNull(etag);
+
+        WebRequest conditional = new WebRequest(url, HttpMethod.GET);
+        conditional.setAdditionalHeader("If-None-Match", etag);
+        // 304 由版本号直接得出，不再计算选项
+        long requests = BuildNameCache.get().getStats().requestCount();
+        assertEquals(304, wc.loadWebResponse(conditional).getStatusCode());
+        assertEquals(requests, BuildNameCache.get().getStats().requestCount());
+
+        // 新的上游构建改变了结果
+        jenkins.buildAndAssertSuccess(jenkins.jenkins.getItemByFullName("upstream", FreeStyleProject.class));
+        assertEquals(200, wc.loadWebResponse(conditional).getStatusCode());
+    }
+}
@@ -0,0 +1,117 @@
+package io.jenkinsci.plugins.opsbox.utility.cache;
+
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import io.jenkinsci.plugins.opsbox.utility.OpsboxUtilityConfiguration;
+import io.jenkinsci.plugins.opsbox.utility.parameter.BuildEntry;
+import io.jenkinsci.plugins.opsbox.utility.parameter.BuildNameOrder;
+import io.jenkinsci.plugins.opsbox.utility.parameter.JobBuildNameParameterDefinition;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class BuildNameCacheTest {
+
+    @Rule
+    public JenkinsRule jenkins = new JenkinsRule();
+
+    @Test
+    public void testLoaderCalledOncePerKey() {
+        BuildNameCache cache = BuildNameCache.get();
+        AtomicInteger loads = new AtomicInteger();
+        BuildNameCache.Key key = new BuildNameCache.Key("upstream", 5, BuildNameOrder.BUILD_NUMBER);
+
+        List<BuildEntry> first = cache.get(key, () -> {
+            loads.incrementAndGet();
+            return entries("1.0.0", "0.9.0");
+        });
+        List<BuildEntry> second = cache.get(key, () -> {
+            loads.incrementAndGet();
+            return entries("other");
+        });
+
+        assertEquals(1, loads.get());
+        assertEquals(first, second);
+    }
+
+    @Test
+    public void testInvalidateByJob() {
+        BuildNameCache cache = BuildNameCache.get();
+        cache.get(new BuildNameCache.Key("upstream", 5, BuildNameOrder.BUILD_NUMBER), () -> entries("a"));
+        cache.get(new BuildNameCache.Key("upstream", 10, BuildNameOrder.BUILD_NUMBER), () -> entries("a"));
+        cache.get(new BuildNameCache.Key("other", 5, BuildNameOrder.BUILD_NUMBER), () -> entries("b"));
+
+        cache.invalidate("upstream");
+
+        assertEquals(entries("c"), cache.get(new BuildNameCache.Key("upstream", 5, BuildNameOrder.BUILD_NUMBER), () -> entries("c")));
+        assertEquals(entries("b"), cache.get(new BuildNameCache.Key("other", 5, BuildNameOrder.BUILD_NUMBER), () -> entries("d")));
+    }
+
+    @Test
+    public void testListComputedAcrossInvalidationIsNotCached() {
+        BuildNameCache cache = BuildNameCache.get();
+        BuildNameCache.Key key = new BuildNameCache.Key("upstream", 5, BuildNameOrder.BUILD_NUMBER);
+
+        // 计算期间作业被失效，结果可能已过时，不应被缓存
+        cache.get(key, () -> {
+            cache.invalidate("upstream");
+            return entries("old");
+        });
+        assertEquals(entries("new"), cache.get(key, () -> entries("new")));
+        assertTrue(cache.isCached("upstream"));
+
+        cache.invalidate("upstream");
+        assertFalse(cache.isCached("upstream"));
+    }
+
+    @Test
+    public void testDisabledCacheAlwaysLoads() {
+        OpsboxUtilityConfiguration.get().setCacheEnabled(false);
+        BuildNameCache cache = BuildNameCache.get();
+        AtomicInteger loads = new AtomicInteger();
+        BuildNameCache.Key key = new BuildNameCache.Key("upstream", 5, BuildNameOrder.BUILD_NUMBER);
+
+        cache.get(key, () -> entries(String.valueOf(loads.incrementAndGet())));
+        cache.get(key, () -> entries(String.valueOf(loads.incrementAndGet())));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testWeightGrowsWithEntries() {
+        BuildNameCache.Key key = new BuildNameCache.Key("upstream", 5, BuildNameOrder.BUILD_NUMBER);
+        int small = BuildNameCache.weigh(key, entries("1.0.0"));
+        int large = BuildNameCache.weigh(key, entries("1.0.0", "1.0.1", "1.0.2"));
+        assertTrue(large > small);
+    }
+
+    @Test
+    public void testCompletedBuildInvalidatesChoices() throws Exception {
+        FreeStyleProject upstream = jenkins.createFreeStyleProject("upstream");
+        FreeStyleBuild first = jenkins.buildAndAssertSuccess(upstream);
+        first.setDisplayName("1.0.0");
+
+        JobBuildNameParameterDefinition param = new JobBuildNameParameterDefinition("BUILD_NAME", "upstream", "");
+        assertEquals(Arrays.asList("1.0.0"), param.getChoices());
+
+        FreeStyleBuild second = jenkins.buildAndAssertSuccess(upstream);
+        second.setDisplayName("1.0.1");
+
+        assertEquals(Arrays.asList("1.0.1", "1.0.0"), param.getChoices());
+    }
+
+    private static List<BuildEntry> entries(String... displayNames) {
+        List<BuildEntry> entries = new ArrayList<>();
+        for (int i = 0; i < displayNames.length; i++) {
+            entries.add(BuildEntry.of(displayNames.length - i, displayNames[i]));
+        }
+        return entries;
+    }
+}
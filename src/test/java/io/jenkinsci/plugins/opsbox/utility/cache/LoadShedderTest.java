@@ -0,0 +1,150 @@
+package io.jenkinsci.plugins.opsbox.utility.cache;
+
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import io.jenkinsci.plugins.opsbox.utility.OpsboxUtilityConfiguration;
+import io.jenkinsci.plugins.opsbox.utility.parameter.BuildEntry;
+import io.jenkinsci.plugins.opsbox.utility.parameter.BuildNameOrder;
+import io.jenkinsci.plugins.opsbox.utility.parameter.JobBuildNameParameterDefinition;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class LoadShedderTest {
+
+    @Rule
+    public JenkinsRule jenkins = new JenkinsRule();
+
+    @Test
+    public void testStaleSnapshotServedUnderLoad() throws Exception {
+        FreeStyleProject upstream = jenkins.createFreeStyleProject("upstream");
+        FreeStyleBuild first = jenkins.buildAndAssertSuccess(upstream);
+        first.setDisplayName("1.0.0");
+
+        JobBuildNameParameterDefinition param = new JobBuildNameParameterDefinition("BUILD_NAME", "upstream", "");
+        JobBuildNameParameterDefinition.Choices fresh = param.getChoiceList();
+        assertFalse(fresh.isStale());
+        assertEquals(Arrays.asList("1.0.0"), fresh.names());
+
+        // 模拟最近的计算很慢
+        LoadShedder.get().sample(LoadShedder.LATENCY_THRESHOLD_MILLIS * 10, System.currentTimeMillis());
+        assertTrue(LoadShedder.get().isOverloaded());
+
+        FreeStyleBuild second = jenkins.buildAndAssertSuccess(upstream);
+        second.setDisplayName("1.0.1");
+
+        // 过载时返回上次的快照，并标明其时效
+        JobBuildNameParameterDefinition.Choices stale = param.getChoiceList();
+        assertTrue(stale.isStale());
+        assertEquals(Arrays.asList("1.0.0"), stale.names());
+        assertNotNull(stale.getStaleNote());
+
+        // 关闭降载后重新计算
+        OpsboxUtilityConfiguration.get().setLoadSheddingEnabled(false);
+        assertEquals(Arrays.asList("1.0.1", "1.0.0"), param.getChoices());
+    }
+
+    @Test
+    public void testKeyWithoutSnapshotIsComputedUnderLoad() {
+        LoadShedder shedder = LoadShedder.get();
+        shedder.sample(LoadShedder.LATENCY_THRESHOLD_MILLIS * 10, System.currentTimeMillis());
+
+        LoadShedder.Result result = shedder.load(new BuildNameCache.Key("upstream", 5, BuildNameOrder.BUILD_NUMBER),
+                () -> List.of(BuildEntry.of(1, "1.0.0")));
+
+        assertFalse(result.isStale());
+        assertEquals("1.0.0", result.entries().get(0).displayName());
+    }
+
+    @Test
+    public void testSnapshotServedWhenNoPermitIsFree() throws Exception {
+        OpsboxUtilityConfiguration.get().setMaxConcurrentComputations(1);
+        LoadShedder shedder = LoadShedder.get();
+        BuildNameCache.Key key = new BuildNameCache.Key("upstream", 5, BuildNameOrder.BUILD_NUMBER);
+        shedder.load(key, () -> List.of(BuildEntry.of(1, "1.0.0")));
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // 另一个计算占用唯一的许可
+            Future<LoadShedder.Result> holder = executor.submit(() ->
+                    shedder.load(new BuildNameCache.Key("other", 5, BuildNameOrder.BUILD_NUMBER), () -> {
+                        started.countDown();
+                        await(release);
+                        return List.of(BuildEntry.of(1, "x"));
+                    }));
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            assertEquals(0, shedder.getAvailablePermits());
+
+            LoadShedder.Result result = shedder.load(key, () -> List.of(BuildEntry.of(2, "1.0.1")));
+            assertTrue(result.isStale());
+            assertEquals("1.0.0", result.entries().get(0).displayName());
+
+            release.countDown();
+            assertFalse(holder.get(10, TimeUnit.SECONDS).isStale());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+
+        LoadShedder.Result result = shedder.load(key, () -> List.of(BuildEntry.of(2, "1.0.1")));
+        assertFalse(result.isStale());
+        assertEquals("1.0.1", result.entries().get(0).displayName());
+    }
+
+    @Test
+    public void testSingleWaiterIsNotOverload() throws Exception {
+        OpsboxUtilityConfiguration.get().setMaxConcurrentComputations(1);
+        LoadShedder shedder = LoadShedder.get();
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            executor.submit(() -> shedder.load(new BuildNameCache.Key("holder", 5, BuildNameOrder.BUILD_NUMBER), () -> {
+                started.countDown();
+                await(release);
+                return List.of(BuildEntry.of(1, "x"));
+            }));
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            // 没有快照的计算排队等待许可
+            Future<LoadShedder.Result> waiter = executor.submit(() ->
+                    shedder.load(new BuildNameCache.Key("waiter", 5, BuildNameOrder.BUILD_NUMBER),
+                            () -> List.of(BuildEntry.of(1, "y"))));
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (shedder.getWaiting() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, shedder.getWaiting());
+
+            // 少量短暂的排队不算过载
+            assertFalse(shedder.isOverloaded());
+            assertFalse(shedder.isCongested(System.currentTimeMillis() + LoadShedder.WAITING_SUSTAINED_MILLIS));
+
+            release.countDown();
+            assertFalse(waiter.get(10, TimeUnit.SECONDS).isStale());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package io.jenkinsci.plugins.opsbox.utility.cache;
+
+import hudson.model.FreeStyleProject;
+import hudson.model.Item;
+import hudson.model.User;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import io.jenkinsci.plugins.opsbox.utility.OpsboxUtilityConfiguration;
+import jenkins.model.Jenkins;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.MockAuthorizationStrategy;
+
+import static org.junit.Assert.*;
+
+public class PermissionCacheTest {
+
+    @Rule
+    public JenkinsRule jenkins = new JenkinsRule();
+
+    private FreeStyleProject job;
+
+    @Before
+    public void setUp() throws Exception {
+        job = jenkins.createFreeStyleProject("upstream");
+        jenkins.jenkins.setSecurityRealm(jenkins.createDummySecurityRealm());
+        jenkins.jenkins.setAuthorizationStrategy(new MockAuthorizationStrategy()
+                .grant(Jenkins.READ, Item.READ).everywhere().to("alice")
+                .grant(Jenkins.READ).everywhere().to("bob"));
+    }
+
+    @Test
+    public void testDecisionIsPerUser() {
+        assertTrue(canRead("alice"));
+        assertFalse(canRead("bob"));
+    }
+
+    @Test
+    public void testSecurityChangeInvalidatesDecisions() throws Exception {
+        assertTrue(canRead("alice"));
+
+        jenkins.jenkins.setAuthorizationStrategy(new MockAuthorizationStrategy()
+                .grant(Jenkins.READ).everywhere().to("alice"));
+        // 安全配置保存之前，缓存的决定仍然有效
+        assertTrue(canRead("alice"));
+
+        jenkins.jenkins.save();
+        assertFalse(canRead("alice"));
+    }
+
+    @Test
+    public void testZeroTtlDisablesCache() {
+        OpsboxUtilityConfiguration.get().setPermissionCacheTtlSeconds(0);
+        assertTrue(canRead("alice"));
+
+        jenkins.jenkins.setAuthorizationStrategy(new MockAuthorizationStrategy()
+                .grant(Jenkins.READ).everywhere().to("alice"));
+        assertFalse(canRead("alice"));
+    }
+
+    private boolean canRead(String userId) {
+        try (ACLContext ignored = ACL.as2(User.getById(userId, true).impersonate2())) {
+            return PermissionCache.get().canRead(job);
+        }
+    }
+}
@@ -4,15 +4,19 @@ import com.syhuang.hudson.plugins.listgitbranchesparameter.ListGitBranchesParame
 import com.syhuang.hudson.plugins.listgitbranchesparameter.ListGitBranchesParameterValue;
 import hudson.EnvVars;
 import hudson.model.*;
+import io.jenkinsci.plugins.opsbox.utility.parameter.JobBuildNameParameterDefinition;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.TestExtension;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import javax.annotation.Nonnull;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
@@ -287,6 +291,55 @@ public class ListGitBranchesEnvironmentContributorTest {
         assertNull(envVars.get("PARAMS__BRANCH__CREDENTIALS_ID")); // 应该是null
     }
 
+    @Test
+    public void testBuildEnvironmentForWithOtherParameterTypes() {
+        when(mockBuild.getParent()).thenReturn(mockJob);
+        when(mockBuild.getAction(ParametersAction.class)).thenReturn(null);
+
+        List<ParameterDefinition> paramDefs = new ArrayList<>();
+        paramDefs.add(new ChoiceParameterDefinition("ENV", new String[]{"dev", "prod"}, ""));
+        paramDefs.add(new JobBuildNameParameterDefinition("BUILD_NAME", "upstream", ""));
+
+        when(mockJob.getProperty(ParametersDefinitionProperty.class)).thenReturn(mockParamProp);
+        when(mockParamProp.getParameterDefinitions()).thenReturn(paramDefs);
+
+        contributor.buildEnvironmentFor((Run)mockBuild, envVars, mockListener);
+
+        assertEquals("dev\nprod", envVars.get("PARAMS__ENV__CHOICES"));
+        assertEquals("upstream", envVars.get("PARAMS__BUILD_NAME__JOB_NAME"));
+    }
+
+    @Test
+    public void testCustomExporter() {
+        when(mockBuild.getParent()).thenReturn(mockJob);
+        when(mockBuild.getAction(ParametersAction.class)).thenReturn(mockParametersAction);
+
+        List<ParameterValue> paramValues = new ArrayList<>();
+        paramValues.add(new StringParameterValue("VERSION", "1.0.0"));
+        paramValues.add(new StringParameterValue("OTHER", "x"));
+        when(mockParametersAction.getParameters()).thenReturn(paramValues);
+        when(mockJob.getProperty(ParametersDefinitionProperty.class)).thenReturn(null);
+
+        contributor.buildEnvironmentFor((Run)mockBuild, envVars, mockListener);
+
+        // 通过扩展点为自定义参数类型导出变量
+        assertEquals("1.0.0", envVars.get("PARAMS__VERSION__VALUE"));
+        assertEquals("x", envVars.get("PARAMS__OTHER__VALUE"));
+    }
+
+    @TestExtension("testCustomExporter")
+    public static class StringValueExporter extends ParameterEnvironmentExporter {
+        @Override
+        protected Class<? extends ParameterValue> getValueType() {
+            return StringParameterValue.class;
+        }
+
+        @Override
+        public void exportValue(@Nonnull ParameterValue value, @Nonnull Map<String, String> env) {
+            env.put(variableName(value.getName(), "VALUE"), String.valueOf(value.getValue()));
+        }
+    }
+
     @Test
     public void testBuildEnvironmentForIntegration() throws Exception {
         // 简化的集成测试 - 由于ListGitBranchesParameterDefinition构造器参数复杂，
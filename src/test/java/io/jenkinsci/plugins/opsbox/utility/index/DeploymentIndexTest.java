@@ -0,0 +1,76 @@
+package io.jenkinsci.plugins.opsbox.utility.index;
+
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import hudson.model.ParametersAction;
+import hudson.model.ParametersDefinitionProperty;
+import hudson.model.StringParameterValue;
+import io.jenkinsci.plugins.opsbox.utility.parameter.JobBuildNameParameterDefinition;
+import io.jenkinsci.plugins.opsbox.utility.parameter.ResultClass;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class DeploymentIndexTest {
+
+    @Rule
+    public JenkinsRule jenkins = new JenkinsRule();
+
+    private FreeStyleProject deploy;
+
+    @Before
+    public void setUp() throws Exception {
+        jenkins.createFreeStyleProject("upstream");
+        deploy = jenkins.createFreeStyleProject("deploy");
+        deploy.addProperty(new ParametersDefinitionProperty(
+                new JobBuildNameParameterDefinition("BUILD_NAME", "upstream", "")));
+    }
+
+    @Test
+    public void testHistoryIsLoadedThenFollowed() throws Exception {
+        deployValue("1.0.0");
+        FreeStyleBuild second = deployValue("1.0.0");
+        FreeStyleBuild third = deployValue("1.0.1");
+
+        // 首次访问时在后台读取历史
+        Map<String, DeploymentIndex.Deployment> deployments = awaitDeployments(2);
+        assertEquals(second.getNumber(), deployments.get("1.0.0").number());
+        assertEquals(third.getNumber(), deployments.get("1.0.1").number());
+        assertEquals(ResultClass.SUCCESS, deployments.get("1.0.1").result());
+        assertNotNull(deployments.get("1.0.1").getSummary());
+
+        // 之后由监听器增量更新
+        FreeStyleBuild fourth = deployValue("1.0.2");
+        assertEquals(fourth.getNumber(), DeploymentIndex.get().deployments(deploy, "BUILD_NAME").get("1.0.2").number());
+
+        fourth.delete();
+        assertNull(DeploymentIndex.get().deployments(deploy, "BUILD_NAME").get("1.0.2"));
+
+        // 删除某个值最近的部署后，回退到仍保留的更早的部署
+        FreeStyleBuild fifth = deployValue("1.0.1");
+        fifth.delete();
+        deployments = DeploymentIndex.get().deployments(deploy, "BUILD_NAME");
+        for (int i = 0; i < 100 && deployments.get("1.0.1") == null; i++) {
+            Thread.sleep(50);
+        }
+        assertEquals(third.getNumber(), deployments.get("1.0.1").number());
+    }
+
+    private FreeStyleBuild deployValue(String value) throws Exception {
+        return jenkins.assertBuildStatusSuccess(deploy.scheduleBuild2(0,
+                new ParametersAction(new StringParameterValue("BUILD_NAME", value))));
+    }
+
+    private Map<String, DeploymentIndex.Deployment> awaitDeployments(int size) throws InterruptedException {
+        Map<String, DeploymentIndex.Deployment> deployments = DeploymentIndex.get().deployments(deploy, "BUILD_NAME");
+        for (int i = 0; i < 100 && deployments.size() < size; i++) {
+            Thread.sleep(50);
+        }
+        return deployments;
+    }
+}
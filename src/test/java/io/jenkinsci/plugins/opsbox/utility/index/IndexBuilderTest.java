@@ -0,0 +1,169 @@
+package io.jenkinsci.plugins.opsbox.utility.index;
+
+import hudson.Launcher;
+import hudson.model.AbstractBuild;
+import hudson.model.BuildListener;
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import hudson.model.Job;
+import hudson.model.ParametersDefinitionProperty;
+import hudson.model.Result;
+import io.jenkinsci.plugins.opsbox.utility.parameter.BuildEntry;
+import io.jenkinsci.plugins.opsbox.utility.parameter.BuildSelection;
+import io.jenkinsci.plugins.opsbox.utility.parameter.JobBuildNameParameterDefinition;
+import io.jenkinsci.plugins.opsbox.utility.parameter.ResultClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.MockFolder;
+import org.jvnet.hudson.test.TestBuilder;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class IndexBuilderTest {
+
+    @Rule
+    public JenkinsRule jenkins = new JenkinsRule();
+
+    @Test
+    public void testBuildIndexesReferencedUpstreamJobs() throws Exception {
+        MockFolder folder = jenkins.createFolder("team");
+        FreeStyleProject upstream = folder.createProject(FreeStyleProject.class, "upstream");
+        for (int i = 1; i <= 3; i++) {
+            FreeStyleBuild build = jenkins.buildAndAssertSuccess(upstream);
+            build.setDisplayName("1.0." + i);
+        }
+        FreeStyleProject unrelated = jenkins.createFreeStyleProject("unrelated");
+        jenkins.buildAndAssertSuccess(unrelated);
+
+        FreeStyleProject deploy = jenkins.createFreeStyleProject("deploy");
+        // 不带文件夹路径引用上游作业
+        deploy.addProperty(new ParametersDefinitionProperty(
+                new JobBuildNameParameterDefinition("BUILD_NAME", "upstream", "")));
+
+        BuildNameIndex.get().clear();
+        IndexBuilder.get().build();
+
+        assertTrue(IndexBuilder.get().isReady());
+        assertTrue(IndexBuilder.get().getDurationMillis() >= 0);
+        assertEquals(upstream, ItemIndex.get().find("upstream", Job.class));
+        assertTrue(BuildNameIndex.get().isIndexed("team/upstream"));
+        assertFalse(BuildNameIndex.get().isIndexed("unrelated"));
+        assertEquals(Arrays.asList("1.0.3", "1.0.2"), names(recentBuilds("team/upstream", BuildSelection.DEFAULT, 2)));
+    }
+
+    @Test
+    public void testIndexFollowsBuildHistory() throws Exception {
+        FreeStyleProject upstream = jenkins.createFreeStyleProject("upstream");
+        FreeStyleBuild first = jenkins.buildAndAssertSuccess(upstream);
+        BuildNameIndex.get().index(upstream);
+
+        FreeStyleBuild second = jenkins.buildAndAssertSuccess(upstream);
+        second.setDisplayName("renamed");
+        assertEquals(Arrays.asList("renamed", first.getDisplayName()), names(recentBuilds("upstream", BuildSelection.DEFAULT, 5)));
+
+        second.delete();
+        assertEquals(Arrays.asList(first.getDisplayName()), names(recentBuilds("upstream", BuildSelection.DEFAULT, 5)));
+    }
+
+    @Test
+    public void testRecentBuildsWithOutOfRangeLimits() throws Exception {
+        FreeStyleProject upstream = jenkins.createFreeStyleProject("upstream");
+        FreeStyleBuild build = jenkins.buildAndAssertSuccess(upstream);
+        BuildNameIndex.get().index(upstream);
+
+        // 非正数返回空列表，超大的数量不会按数量预分配
+        assertTrue(recentBuilds("upstream", BuildSelection.DEFAULT, 0).isEmpty());
+        assertTrue(recentBuilds("upstream", BuildSelection.DEFAULT, -1).isEmpty());
+        assertEquals(Arrays.asList(build.getDisplayName()),
+                names(recentBuilds("upstream", BuildSelection.DEFAULT, Integer.MAX_VALUE)));
+    }
+
+    @Test
+    public void testSelectionMergesResultLists() throws Exception {
+        FreeStyleProject upstream = jenkins.createFreeStyleProject("upstream");
+        FreeStyleBuild first = jenkins.buildAndAssertSuccess(upstream);
+        upstream.getBuildersList().add(new TestBuilder() {
+            @Override
+            public boolean perform(AbstractBuild<?, ?> build, Launcher launcher, BuildListener listener) {
+                build.setResult(Result.UNSTABLE);
+                return true;
+            }
+        });
+        FreeStyleBuild unstable = jenkins.assertBuildStatus(Result.UNSTABLE, upstream.scheduleBuild2(0));
+        upstream.getBuildersList().clear();
+        FreeStyleBuild third = jenkins.buildAndAssertSuccess(upstream);
+        BuildNameIndex.get().index(upstream);
+
+        BuildSelection successOrUnstable = new BuildSelection(EnumSet.of(ResultClass.SUCCESS, ResultClass.UNSTABLE), false);
+        assertEquals(Arrays.asList(third.getDisplayName(), unstable.getDisplayName(), first.getDisplayName()),
+                names(recentBuilds("upstream", successOrUnstable, 5)));
+        assertEquals(Arrays.asList(third.getDisplayName(), first.getDisplayName()),
+                names(recentBuilds("upstream", BuildSelection.DEFAULT, 5)));
+
+        // 标记为永久保留后，构建移动到保留列表
+        first.keepLog(true);
+        BuildSelection keptOnly = new BuildSelection(EnumSet.of(ResultClass.SUCCESS, ResultClass.UNSTABLE), true);
+        assertEquals(Arrays.asList(first.getDisplayName()),
+                names(recentBuilds("upstream", keptOnly, 5)));
+        assertEquals(Arrays.asList(third.getDisplayName(), first.getDisplayName()),
+                names(recentBuilds("upstream", BuildSelection.DEFAULT, 5)));
+    }
+
+    @Test
+    public void testItemIndexFollowsRenames() throws Exception {
+        FreeStyleProject job = jenkins.createFreeStyleProject("before");
+        job.renameTo("after");
+
+        assertNull(ItemIndex.get().find("before", Job.class));
+        assertEquals(job, ItemIndex.get().find("after", Job.class));
+    }
+
+    @Test
+    public void testAmbiguousNameResolvesLikeItemWalk() throws Exception {
+        // 先创建的文件夹排在索引前面，但遍历按名称排序
+        jenkins.createFolder("zeta").createProject(FreeStyleProject.class, "service");
+        FreeStyleProject earlier = jenkins.createFolder("Alpha").createProject(FreeStyleProject.class, "service");
+        IndexBuilder.get().build();
+        assertEquals(Arrays.asList("zeta/service", "Alpha/service"), ItemIndex.get().fullNames("service"));
+
+        Job<?, ?> walked = null;
+        for (Job<?, ?> job : jenkins.jenkins.getAllItems(Job.class)) {
+            if (job.getName().equals("service")) {
+                walked = job;
+                break;
+            }
+        }
+        assertEquals(earlier, walked);
+        assertEquals(earlier, ItemIndex.get().find("service", Job.class));
+    }
+
+    @Test
+    public void testLookupFallsBackWhenIndexMisses() throws Exception {
+        IndexBuilder.get().build();
+        assertTrue(IndexBuilder.get().isReady());
+
+        MockFolder folder = jenkins.createFolder("team");
+        FreeStyleProject upstream = folder.createProject(FreeStyleProject.class, "upstream");
+        FreeStyleBuild build = jenkins.buildAndAssertSuccess(upstream);
+        // 模拟索引尚未跟上的作业
+        ItemIndex.get().clear();
+        assertNull(ItemIndex.get().find("upstream", Job.class));
+
+        JobBuildNameParameterDefinition param = new JobBuildNameParameterDefinition("BUILD_NAME", "upstream", "");
+        assertEquals(Arrays.asList(build.getDisplayName()), param.getChoices());
+    }
+
+    private static List<BuildEntry> recentBuilds(String jobFullName, BuildSelection selection, int limit) {
+        IndexUpdateQueue.get().flush(jobFullName);
+        return BuildNameIndex.get().recentBuilds(jobFullName, selection, limit);
+    }
+
+    private static List<String> names(List<BuildEntry> entries) {
+        return entries.stream().map(BuildEntry::displayName).toList();
+    }
+}
@@ -0,0 +1,112 @@
+package io.jenkinsci.plugins.opsbox.utility.index;
+
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import hudson.model.Job;
+import hudson.model.ParametersDefinitionProperty;
+import hudson.model.TaskListener;
+import io.jenkinsci.plugins.opsbox.utility.parameter.BuildEntry;
+import io.jenkinsci.plugins.opsbox.utility.parameter.BuildSelection;
+import io.jenkinsci.plugins.opsbox.utility.parameter.JobBuildNameParameterDefinition;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class IndexSnapshotTest {
+
+    @Rule
+    public JenkinsRule jenkins = new JenkinsRule();
+
+    private FreeStyleProject upstream;
+
+    @Before
+    public void setUp() throws Exception {
+        upstream = jenkins.createFreeStyleProject("upstream");
+        FreeStyleProject deploy = jenkins.createFreeStyleProject("deploy");
+        deploy.addProperty(new ParametersDefinitionProperty(
+                new JobBuildNameParameterDefinition("BUILD_NAME", "upstream", "")));
+    }
+
+    @Test
+    public void testLoadAndReconcile() throws Exception {
+        FreeStyleBuild first = jenkins.buildAndAssertSuccess(upstream);
+        FreeStyleBuild second = jenkins.buildAndAssertSuccess(upstream);
+        BuildNameIndex.get().index(upstream);
+        IndexSnapshot.get().write();
+
+        // 模拟冷启动：快照之后又有构建完成和删除
+        BuildNameIndex.get().clear();
+        ItemIndex.get().clear();
+        FreeStyleBuild third = jenkins.buildAndAssertSuccess(upstream);
+        second.delete();
+
+        IndexBuilder.get().build();
+
+        assertEquals(upstream, ItemIndex.get().find("upstream", Job.class));
+        assertEquals(Arrays.asList(third.getDisplayName(), first.getDisplayName()),
+                names(BuildNameIndex.get().recentBuilds("upstream", BuildSelection.DEFAULT, 5)));
+    }
+
+    @Test
+    public void testCorruptSnapshotIsIgnored() throws Exception {
+        jenkins.buildAndAssertSuccess(upstream);
+        BuildNameIndex.get().index(upstream);
+        IndexSnapshot.get().write();
+
+        File file = IndexSnapshot.getFile();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            // 篡改最后一个字节，校验和不再匹配
+            raf.seek(raf.length() - 1);
+            int last = raf.read();
+            raf.seek(raf.length() - 1);
+            raf.write(last ^ 0xFF);
+        }
+
+        BuildNameIndex.get().clear();
+        assertNull(IndexSnapshot.get().load());
+        assertFalse(BuildNameIndex.get().isIndexed("upstream"));
+    }
+
+    @Test
+    public void testUnchangedIndexesAreNotRewritten() throws Exception {
+        IndexSnapshot snapshot = IndexSnapshot.get();
+        snapshot.writeIfChanged();
+        File file = IndexSnapshot.getFile();
+        assertTrue(file.delete());
+
+        snapshot.writeIfChanged();
+        assertFalse(file.exists());
+
+        ItemIndex.get().add("other", "folder/other");
+        snapshot.writeIfChanged();
+        assertTrue(file.exists());
+    }
+
+    @Test
+    public void testPeriodicWriteIncludesQueuedBuilds() throws Exception {
+        FreeStyleBuild first = jenkins.buildAndAssertSuccess(upstream);
+        IndexBuilder.get().build();
+        assertTrue(IndexBuilder.get().isReady());
+
+        // 新构建可能仍在写回队列中，定期写入前会先刷新队列
+        FreeStyleBuild second = jenkins.buildAndAssertSuccess(upstream);
+        IndexSnapshot.get().execute(TaskListener.NULL);
+
+        BuildNameIndex.get().clear();
+        assertNotNull(IndexSnapshot.get().load());
+        assertEquals(Arrays.asList(second.getDisplayName(), first.getDisplayName()),
+                names(BuildNameIndex.get().recentBuilds("upstream", BuildSelection.DEFAULT, 5)));
+    }
+
+    private static List<String> names(List<BuildEntry> entries) {
+        return entries.stream().map(BuildEntry::displayName).toList();
+    }
+}
@@ -0,0 +1,105 @@
+package io.jenkinsci.plugins.opsbox.utility.index;
+
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import hudson.model.Run;
+import io.jenkinsci.plugins.opsbox.utility.cache.BuildNameCache;
+import io.jenkinsci.plugins.opsbox.utility.parameter.BuildEntry;
+import io.jenkinsci.plugins.opsbox.utility.parameter.BuildSelection;
+import io.jenkinsci.plugins.opsbox.utility.parameter.JobBuildNameParameterDefinition;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class IndexUpdateQueueTest {
+
+    @Rule
+    public JenkinsRule jenkins = new JenkinsRule();
+
+    @Test
+    public void testBulkDeletionIsOneBatch() throws Exception {
+        FreeStyleProject upstream = jenkins.createFreeStyleProject("upstream");
+        List<FreeStyleBuild> builds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            builds.add(jenkins.buildAndAssertSuccess(upstream));
+        }
+        IndexUpdateQueue.get().flushAll();
+        BuildNameIndex index = BuildNameIndex.get();
+        index.index(upstream);
+
+        List<Integer> deletions = new ArrayList<>();
+        for (FreeStyleBuild build : builds.subList(0, 4)) {
+            deletions.add(build.getNumber());
+        }
+        long modCount = index.getModCount();
+        assertTrue(index.apply("upstream", List.<Run<?, ?>>of(), deletions));
+
+        // 一次批量应用只产生一次变更
+        assertEquals(modCount + 1, index.getModCount());
+        assertEquals(Arrays.asList(builds.get(4).getDisplayName()),
+                names(index.recentBuilds("upstream", BuildSelection.DEFAULT, 5)));
+    }
+
+    @Test
+    public void testLatestChangeWins() throws Exception {
+        FreeStyleProject upstream = jenkins.createFreeStyleProject("upstream");
+        FreeStyleBuild first = jenkins.buildAndAssertSuccess(upstream);
+        FreeStyleBuild second = jenkins.buildAndAssertSuccess(upstream);
+        BuildNameIndex.get().index(upstream);
+
+        IndexUpdateQueue queue = IndexUpdateQueue.get();
+        queue.changed(second);
+        queue.deleted(second);
+        queue.flush("upstream");
+
+        assertEquals(Arrays.asList(first.getDisplayName()),
+                names(BuildNameIndex.get().recentBuilds("upstream", BuildSelection.DEFAULT, 5)));
+    }
+
+    @Test
+    public void testReadersSeeQueuedChanges() throws Exception {
+        FreeStyleProject upstream = jenkins.createFreeStyleProject("upstream");
+        jenkins.buildAndAssertSuccess(upstream);
+        BuildNameIndex.get().index(upstream);
+
+        IndexBuilder.get().build();
+        JobBuildNameParameterDefinition param = new JobBuildNameParameterDefinition("BUILD_NAME", "upstream", "");
+        param.getChoices();
+
+        FreeStyleBuild second = jenkins.buildAndAssertSuccess(upstream);
+        second.setDisplayName("renamed");
+
+        // 读取前（进入缓存之前）会先应用该作业排队中的变更
+        assertEquals("renamed", param.getChoices().get(0));
+    }
+
+    @Test
+    public void testUnchangedBuildKeepsCachedChoices() throws Exception {
+        FreeStyleProject upstream = jenkins.createFreeStyleProject("upstream");
+        FreeStyleBuild build = jenkins.buildAndAssertSuccess(upstream);
+        IndexUpdateQueue.get().flushAll();
+        BuildNameIndex.get().index(upstream);
+        JobBuildNameParameterDefinition param = new JobBuildNameParameterDefinition("BUILD_NAME", "upstream", "");
+        param.getChoices();
+        assertTrue(BuildNameCache.get().isCached("upstream"));
+
+        // 保存未改变的构建不会使缓存失效
+        build.save();
+        IndexUpdateQueue.get().flushAll();
+        assertTrue(BuildNameCache.get().isCached("upstream"));
+
+        build.setDisplayName("renamed");
+        IndexUpdateQueue.get().flushAll();
+        assertFalse(BuildNameCache.get().isCached("upstream"));
+    }
+
+    private static List<String> names(List<BuildEntry> entries) {
+        return entries.stream().map(BuildEntry::displayName).toList();
+    }
+}
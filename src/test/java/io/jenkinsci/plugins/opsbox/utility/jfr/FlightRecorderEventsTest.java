@@ -0,0 +1,129 @@
+package io.jenkinsci.plugins.opsbox.utility.jfr;
+
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import hudson.model.ParametersDefinitionProperty;
+import hudson.model.TaskListener;
+import io.jenkinsci.plugins.opsbox.utility.parameter.JobBuildNameParameterDefinition;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class FlightRecorderEventsTest {
+
+    @Rule
+    public JenkinsRule jenkins = new JenkinsRule();
+
+    @Test
+    public void testChoicesEvents() throws Exception {
+        FreeStyleProject upstream = jenkins.createFreeStyleProject("upstream");
+        FreeStyleBuild build = jenkins.buildAndAssertSuccess(upstream);
+        build.setDisplayName("1.0.0");
+        JobBuildNameParameterDefinition param = new JobBuildNameParameterDefinition("BUILD_NAME", "upstream", "");
+
+        List<RecordedEvent> events = record(() -> {
+            param.getChoices();
+            param.getChoices();
+        }, FindEvent.class, BuildNamesEvent.class, ChoicesEvent.class);
+
+        // 第一次未命中缓存并读取构建历史，第二次命中缓存
+        List<RecordedEvent> scans = ofType(events, BuildNamesEvent.class);
+        assertEquals(2, scans.size());
+        assertEquals("upstream", scans.get(0).getString("jobName"));
+        assertFalse(scans.get(0).getBoolean("cacheHit"));
+        assertTrue(scans.get(0).getInt("buildsExamined") >= 1);
+        assertEquals(1, scans.get(0).getInt("buildNameCount"));
+        assertTrue(scans.get(1).getBoolean("cacheHit"));
+
+        List<RecordedEvent> choices = ofType(events, ChoicesEvent.class);
+        assertEquals(2, choices.size());
+        assertEquals("BUILD_NAME", choices.get(0).getString("parameterName"));
+        assertEquals(1, choices.get(0).getInt("choiceCount"));
+        assertFalse(choices.get(0).getBoolean("cacheHit"));
+        assertTrue(choices.get(1).getBoolean("cacheHit"));
+
+        assertEquals(2, ofType(events, FindEvent.class).size());
+        assertTrue(ofType(events, FindEvent.class).get(0).getBoolean("found"));
+    }
+
+    @Test
+    public void testCheckJobNameEvent() throws Exception {
+        jenkins.createFreeStyleProject("upstream");
+        JobBuildNameParameterDefinition.DescriptorImpl descriptor =
+                jenkins.jenkins.getDescriptorByType(JobBuildNameParameterDefinition.DescriptorImpl.class);
+
+        List<RecordedEvent> events = record(() -> {
+            descriptor.doCheckJobName("upstream", null);
+            descriptor.doCheckJobName("missing", null);
+        }, CheckJobNameEvent.class);
+
+        List<RecordedEvent> checks = ofType(events, CheckJobNameEvent.class);
+        assertEquals(2, checks.size());
+        assertTrue(checks.get(0).getBoolean("found"));
+        assertTrue(checks.get(0).getBoolean("readable"));
+        assertEquals("missing", checks.get(1).getString("jobName"));
+        assertFalse(checks.get(1).getBoolean("found"));
+    }
+
+    @Test
+    public void testEnvironmentEvent() throws Exception {
+        jenkins.createFreeStyleProject("upstream");
+        FreeStyleProject downstream = jenkins.createFreeStyleProject("downstream");
+        downstream.addProperty(new ParametersDefinitionProperty(
+                new JobBuildNameParameterDefinition("BUILD_NAME", "upstream", "")));
+        FreeStyleBuild build = jenkins.buildAndAssertSuccess(downstream);
+        build.getEnvironment(TaskListener.NULL);
+
+        List<RecordedEvent> events = record(() -> build.getEnvironment(TaskListener.NULL), EnvironmentEvent.class);
+
+        List<RecordedEvent> exports = ofType(events, EnvironmentEvent.class);
+        assertFalse(exports.isEmpty());
+        RecordedEvent export = exports.get(0);
+        assertEquals("downstream", export.getString("jobName"));
+        assertEquals(build.getNumber(), export.getInt("buildNumber"));
+        // 导出器在之前的调用中已解析过
+        assertTrue(export.getBoolean("cacheHit"));
+        assertTrue(export.getInt("variableCount") >= 1);
+    }
+
+    @SafeVarargs
+    private static List<RecordedEvent> record(Action action, Class<? extends Event>... types) throws Exception {
+        Path file = Files.createTempFile("opsbox", ".jfr");
+        try (Recording recording = new Recording()) {
+            for (Class<? extends Event> type : types) {
+                recording.enable(type).withoutThreshold();
+            }
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static List<RecordedEvent> ofType(List<RecordedEvent> events, Class<? extends Event> type) {
+        String name = type.getAnnotation(jdk.jfr.Name.class).value();
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .sorted(Comparator.comparing(RecordedEvent::getStartTime))
+                .collect(Collectors.toList());
+    }
+
+    private interface Action {
+        void run() throws Exception;
+    }
+}
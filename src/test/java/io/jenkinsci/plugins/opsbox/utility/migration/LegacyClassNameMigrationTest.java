@@ -0,0 +1,62 @@
+package io.jenkinsci.plugins.opsbox.utility.migration;
+
+import hudson.model.FreeStyleProject;
+import hudson.model.Items;
+import hudson.model.ParametersDefinitionProperty;
+import io.jenkinsci.plugins.opsbox.utility.parameter.JobBuildNameParameterDefinition;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class LegacyClassNameMigrationTest {
+
+    private static final String LEGACY_CLASS_NAME = "cn.opsbox.jenkinsci.plugins.oes.parameter.JobBuildNameParameterDefinition";
+
+    @Rule
+    public JenkinsRule jenkins = new JenkinsRule();
+
+    @Test
+    public void testLegacyClassNameIsAliased() {
+        Object definition = Items.XSTREAM2.fromXML("<" + LEGACY_CLASS_NAME + ">"
+                + "<name>BUILD_NAME</name><jobName>upstream</jobName><countLimit>3</countLimit>"
+                + "</" + LEGACY_CLASS_NAME + ">");
+
+        assertTrue(definition instanceof JobBuildNameParameterDefinition);
+        assertEquals("upstream", ((JobBuildNameParameterDefinition) definition).getJobName());
+        assertEquals(3, ((JobBuildNameParameterDefinition) definition).getCountLimit());
+    }
+
+    @Test
+    public void testMigrationRewritesOnlyAffectedConfigs() throws Exception {
+        FreeStyleProject legacy = jenkins.createFreeStyleProject("legacy");
+        legacy.addProperty(new ParametersDefinitionProperty(
+                new JobBuildNameParameterDefinition("BUILD_NAME", "upstream", "")));
+        FreeStyleProject plain = jenkins.createFreeStyleProject("plain");
+
+        // 模拟旧插件写入的配置文件
+        File legacyConfig = legacy.getConfigFile().getFile();
+        String xml = Files.readString(legacyConfig.toPath(), StandardCharsets.UTF_8);
+        Files.writeString(legacyConfig.toPath(),
+                xml.replace(JobBuildNameParameterDefinition.class.getName(), LEGACY_CLASS_NAME), StandardCharsets.UTF_8);
+        long plainModified = plain.getConfigFile().getFile().lastModified();
+
+        LegacyClassNameMigration migration = new LegacyClassNameMigration();
+        LegacyClassNameMigration.Progress progress = migration.start(new File(jenkins.jenkins.getRootDir(), "jobs"));
+        while (!progress.isFinished()) {
+            Thread.sleep(50);
+        }
+
+        assertEquals(2, progress.getScanned());
+        assertEquals(1, progress.getAffected());
+        assertEquals(1, progress.getMigrated());
+        assertEquals(0, progress.getFailed());
+        assertFalse(LegacyClassNameMigration.containsLegacyClassName(legacyConfig));
+        assertEquals(plainModified, plain.getConfigFile().getFile().lastModified());
+    }
+}
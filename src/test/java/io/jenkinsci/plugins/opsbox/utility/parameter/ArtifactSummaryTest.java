@@ -0,0 +1,35 @@
+package io.jenkinsci.plugins.opsbox.utility.parameter;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ArtifactSummaryTest {
+
+    private final ArtifactSummary summary = new ArtifactSummary(
+            List.of("dist/app-1.0.0.tar.gz", "reports/junit.xml"), false);
+
+    @Test
+    public void testMatches() {
+        assertTrue(summary.matches("dist/*.tar.gz"));
+        assertTrue(summary.matches("**/*.xml"));
+        assertTrue(summary.matches("dist/*.zip, dist/*.tar.gz"));
+        assertFalse(summary.matches("dist/*.zip"));
+        assertFalse(summary.matches("*.tar.gz"));
+    }
+
+    @Test
+    public void testEmptyFilterMatchesEverything() {
+        assertTrue(ArtifactSummary.EMPTY.matches(null));
+        assertTrue(ArtifactSummary.EMPTY.matches(" "));
+        assertFalse(ArtifactSummary.EMPTY.matches("dist/*.tar.gz"));
+    }
+
+    @Test
+    public void testTruncatedSummaryIsGivenTheBenefitOfTheDoubt() {
+        ArtifactSummary truncated = new ArtifactSummary(List.of("a.txt"), true);
+        assertTrue(truncated.matches("dist/*.tar.gz"));
+    }
+}
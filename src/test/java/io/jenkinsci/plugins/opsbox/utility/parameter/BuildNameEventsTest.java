@@ -0,0 +1,176 @@
+package io.jenkinsci.plugins.opsbox.utility.parameter;
+
+import hudson.Launcher;
+import hudson.model.*;
+import net.sf.json.JSONObject;
+import org.htmlunit.WebResponse;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.TestBuilder;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BuildNameEventsTest {
+
+    @Rule
+    public JenkinsRule jenkins = new JenkinsRule();
+
+    private FreeStyleProject upstream;
+
+    @Before
+    public void setUp() throws Exception {
+        upstream = jenkins.createFreeStyleProject("upstream");
+        // 测试中连续轮询，不限制轮询间隔
+        descriptor().setMinPollIntervalMillis(0);
+    }
+
+    @Test
+    public void testCompletedBuildIsPublished() throws Exception {
+        BuildNameEvents events = BuildNameEvents.get();
+        long sequence = events.getSequence("upstream");
+
+        FreeStyleBuild build = jenkins.buildAndAssertSuccess(upstream);
+
+        BuildNameEvents.Poll poll = events.since("upstream", sequence);
+        assertFalse(poll.missed());
+        assertEquals(1, poll.events().size());
+        assertEquals(build.getNumber(), poll.events().get(0).number());
+        assertEquals(build.getDisplayName(), poll.events().get(0).displayName());
+
+        // 没有新的构建时立即返回空列表
+        poll = events.since("upstream", poll.sequence());
+        assertFalse(poll.missed());
+        assertTrue(poll.events().isEmpty());
+    }
+
+    @Test
+    public void testSequenceSurvivesForget() throws Exception {
+        BuildNameEvents events = BuildNameEvents.get();
+        long sequence = events.getSequence("upstream");
+        jenkins.buildAndAssertSuccess(upstream);
+        long seen = events.since("upstream", sequence).sequence();
+        assertTrue(seen > sequence);
+
+        // 丢弃频道期间完成的构建没有事件，但序号不会回到起点，页面能发现可能漏掉了构建
+        events.forget("upstream");
+        jenkins.buildAndAssertSuccess(upstream);
+        BuildNameEvents.Poll poll = events.since("upstream", seen);
+        assertTrue(poll.missed());
+        assertTrue(poll.sequence() > seen);
+
+        // 重启前发出的更大的序号同样视为可能漏掉
+        assertTrue(events.since("upstream", Long.MAX_VALUE).missed());
+    }
+
+    @Test
+    public void testFailedBuildIsNotOfferedByDefault() throws Exception {
+        BuildNameEvents events = BuildNameEvents.get();
+        long sequence = events.getSequence("upstream");
+
+        upstream.getBuildersList().add(new TestBuilder() {
+            @Override
+            public boolean perform(AbstractBuild<?, ?> build, Launcher launcher, BuildListener listener) {
+                return false;
+            }
+        });
+        jenkins.assertBuildStatus(Result.FAILURE, upstream.scheduleBuild2(0));
+
+        // 事件中带有构建结果，由轮询端按参数接受的结果过滤
+        assertEquals(ResultClass.FAILURE, events.since("upstream", sequence).events().get(0).result());
+
+        JobBuildNameParameterDefinition parameter = new JobBuildNameParameterDefinition("VERSION", "upstream", "");
+        FreeStyleProject downstream = downstream(parameter);
+        JSONObject data = poll(downstream, sequence);
+        assertFalse(data.has("choices"));
+
+        parameter.setAcceptedResults("SUCCESS,FAILURE");
+        data = poll(downstream, sequence);
+        assertEquals(1, data.getJSONArray("choices").size());
+    }
+
+    @Test
+    public void testPollChoicesEndpoint() throws Exception {
+        long sequence = BuildNameEvents.get().getSequence("upstream");
+        FreeStyleBuild build = jenkins.buildAndAssertSuccess(upstream);
+
+        FreeStyleProject downstream = downstream(new JobBuildNameParameterDefinition("VERSION", "upstream", ""));
+        JSONObject data = poll(downstream, sequence);
+        assertTrue(data.getLong("sequence") > sequence);
+        assertEquals(build.getDisplayName(), data.getJSONArray("choices").getString(0));
+
+        // 没有变化时只返回序号
+        data = poll(downstream, data.getLong("sequence"));
+        assertFalse(data.has("choices"));
+    }
+
+    @Test
+    public void testPolledChoicesFollowOrderAndCountLimit() throws Exception {
+        long sequence = BuildNameEvents.get().getSequence("upstream");
+        for (String name : new String[]{"1.2.0", "1.10.0", "1.1.0"}) {
+            jenkins.buildAndAssertSuccess(upstream).setDisplayName(name);
+        }
+
+        JobBuildNameParameterDefinition parameter = new JobBuildNameParameterDefinition("VERSION", "upstream", "");
+        parameter.setOrder(BuildNameOrder.VERSION);
+        parameter.setCountLimit(2);
+        FreeStyleProject downstream = downstream(parameter);
+
+        // 新构建不是简单地插到最前面，而是按参数配置的排序和数量返回完整列表
+        JSONObject data = poll(downstream, sequence);
+        assertEquals(List.of("1.10.0", "1.2.0"), List.copyOf(data.getJSONArray("choices")));
+
+        // 请求中携带的数量和排序会被忽略
+        data = jenkins.getJSON(pollUrl(downstream, sequence) + "&countLimit=2147483647&order=BUILD_NUMBER")
+                .getJSONObject().getJSONObject("data");
+        assertEquals(List.of("1.10.0", "1.2.0"), List.copyOf(data.getJSONArray("choices")));
+    }
+
+    @Test
+    public void testPollChoicesRequiresConfiguredParameter() throws Exception {
+        FreeStyleProject downstream = downstream(new JobBuildNameParameterDefinition("VERSION", "upstream", ""));
+        JenkinsRule.WebClient wc = jenkins.createWebClient().withThrowExceptionOnFailingStatusCode(false);
+
+        // 只能轮询任务上实际配置的参数
+        assertEquals(404, wc.goTo(pollUrl(downstream, 0).replace("name=VERSION", "name=OTHER"), null)
+                .getWebResponse().getStatusCode());
+        assertEquals(404, wc.goTo(pollUrl(downstream, 0).replace("job=downstream", "job=missing"), null)
+                .getWebResponse().getStatusCode());
+    }
+
+    @Test
+    public void testPollingTooOftenIsRejected() throws Exception {
+        FreeStyleProject downstream = downstream(new JobBuildNameParameterDefinition("VERSION", "upstream", ""));
+        descriptor().setMinPollIntervalMillis(60_000);
+        JenkinsRule.WebClient wc = jenkins.createWebClient().withThrowExceptionOnFailingStatusCode(false);
+
+        assertEquals(200, wc.goTo(pollUrl(downstream, 0), null).getWebResponse().getStatusCode());
+
+        // 间隔内再次轮询被拒绝，并告知何时重试
+        WebResponse rejected = wc.goTo(pollUrl(downstream, 0), null).getWebResponse();
+        assertEquals(429, rejected.getStatusCode());
+        assertEquals("60", rejected.getResponseHeaderValue("Retry-After"));
+    }
+
+    private JobBuildNameParameterDefinition.DescriptorImpl descriptor() {
+        return jenkins.jenkins.getDescriptorByType(JobBuildNameParameterDefinition.DescriptorImpl.class);
+    }
+
+    private FreeStyleProject downstream(JobBuildNameParameterDefinition parameter) throws Exception {
+        FreeStyleProject downstream = jenkins.createFreeStyleProject("downstream");
+        downstream.addProperty(new ParametersDefinitionProperty(parameter));
+        return downstream;
+    }
+
+    private JSONObject poll(FreeStyleProject downstream, long since) throws Exception {
+        return jenkins.getJSON(pollUrl(downstream, since)).getJSONObject().getJSONObject("data");
+    }
+
+    private static String pollUrl(FreeStyleProject downstream, long since) {
+        return "descriptorByName/" + JobBuildNameParameterDefinition.class.getName()
+                + "/pollChoices?job=" + downstream.getFullName() + "&name=VERSION&since=" + since;
+    }
+}
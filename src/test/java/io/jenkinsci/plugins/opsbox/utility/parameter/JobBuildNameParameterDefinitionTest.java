@@ -2,6 +2,7 @@ package io.jenkinsci.plugins.opsbox.utility.parameter;
 
 import hudson.Launcher;
 import hudson.model.*;
+import hudson.tasks.ArtifactArchiver;
 import hudson.util.FormValidation;
 import net.sf.json.JSONObject;
 import org.junit.Before;
@@ -14,6 +15,7 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.Assert.*;
@@ -247,4 +249,173 @@ public class JobBuildNameParameterDefinitionTest {
         assertFalse("Should not contain failed build", choices.contains("failed-build"));
         assertTrue("Should contain success build", choices.contains("success-build"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testVersionOrder() throws Exception {
+        // 构建顺序与版本顺序不一致（例如回移植的补丁版本）
+        String[] names = {"1.0.0-1+1", "1.1.0-1+2", "1.0.1-1+3", "not-a-version", "1.1.0-2+5"};
+        for (String name : names) {
+            FreeStyleBuild build = jenkins.buildAndAssertSuccess(sourceJob);
+            build.setDisplayName(name);
+        }
+
+        parameterDefinition.setCountLimit(4);
+        parameterDefinition.setOrder(BuildNameOrder.VERSION);
+
+        List<String> choices = parameterDefinition.getChoices();
+        assertEquals(Arrays.asList("1.1.0-2+5", "1.1.0-1+2", "1.0.1-1+3", "1.0.0-1+1"), choices);
+    }
+
+    @Test
+    public void testVersionOrderWithOutOfRangeCountLimit() throws Exception {
+        jenkins.buildAndAssertSuccess(sourceJob).setDisplayName("1.0.0");
+        jenkins.buildAndAssertSuccess(sourceJob).setDisplayName("2.0.0");
+        parameterDefinition.setOrder(BuildNameOrder.VERSION);
+
+        // 扫描数量不会溢出为负数
+        parameterDefinition.setCountLimit(Integer.MAX_VALUE);
+        assertEquals(Arrays.asList("2.0.0", "1.0.0"), parameterDefinition.getChoices());
+
+        // 负数不提供任何构建，只剩默认构建名称
+        parameterDefinition.setCountLimit(-1);
+        assertEquals(Arrays.asList("0.0.1-1+999"), parameterDefinition.getChoices());
+    }
+
+    @Test
+    public void testArtifactFilter() throws Exception {
+        // 参数解析过上游作业后，其构建完成时会记录制品摘要
+        parameterDefinition.getChoices();
+        sourceJob.getPublishersList().add(new ArtifactArchiver("dist/*"));
+        TestBuilder packaging = new TestBuilder() {
+            @Override
+            public boolean perform(AbstractBuild<?, ?> build, Launcher launcher, BuildListener listener)
+                    throws InterruptedException, IOException {
+                build.getWorkspace().child("dist/app.tar.gz").write("content", "UTF-8");
+                return true;
+            }
+        };
+
+        // 第一个构建打包了制品
+        sourceJob.getBuildersList().add(packaging);
+        FreeStyleBuild packaged = jenkins.buildAndAssertSuccess(sourceJob);
+        packaged.setDisplayName("packaged");
+
+        // 第二个构建只生成了其他文件
+        sourceJob.getBuildersList().remove(packaging);
+        sourceJob.getBuildersList().add(new TestBuilder() {
+            @Override
+            public boolean perform(AbstractBuild<?, ?> build, Launcher launcher, BuildListener listener)
+                    throws InterruptedException, IOException {
+                build.getWorkspace().child("dist/notes.txt").write("content", "UTF-8");
+                return true;
+            }
+        });
+        FreeStyleBuild skipped = jenkins.buildAndAssertSuccess(sourceJob);
+        skipped.setDisplayName("skipped");
+
+        assertNotNull(packaged.getAction(ArtifactSummaryAction.class));
+
+        parameterDefinition.setArtifactFilter("dist/*.tar.gz");
+        assertEquals(Arrays.asList("packaged"), parameterDefinition.getChoices());
+
+        parameterDefinition.setArtifactFilter(" ");
+        assertNull(parameterDefinition.getArtifactFilter());
+        assertEquals(Arrays.asList("skipped", "packaged"), parameterDefinition.getChoices());
+    }
+
+    @Test
+    public void testArtifactSummaryIsRecordedInBackground() throws Exception {
+        sourceJob.getPublishersList().add(new ArtifactArchiver("dist/*"));
+        sourceJob.getBuildersList().add(new TestBuilder() {
+            @Override
+            public boolean perform(AbstractBuild<?, ?> build, Launcher launcher, BuildListener listener)
+                    throws InterruptedException, IOException {
+                build.getWorkspace().child("dist/app.tar.gz").write("content", "UTF-8");
+                return true;
+            }
+        });
+        // 尚未被任何参数引用的作业不记录制品摘要
+        FreeStyleBuild packaged = jenkins.buildAndAssertSuccess(sourceJob);
+        packaged.setDisplayName("packaged");
+        assertNull(packaged.getAction(ArtifactSummaryAction.class));
+
+        // 请求线程不读取归档目录，没有摘要的构建暂不匹配，由后台补充摘要
+        parameterDefinition.setArtifactFilter("dist/*.tar.gz");
+        assertEquals(Arrays.asList("0.0.1-1+999"), parameterDefinition.getChoices());
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!parameterDefinition.getChoices().contains("packaged") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertNotNull(packaged.getAction(ArtifactSummaryAction.class));
+        assertEquals(Arrays.asList("packaged"), parameterDefinition.getChoices());
+    }
+
+    @Test
+    public void testAcceptedResults() throws Exception {
+        FreeStyleBuild success = jenkins.buildAndAssertSuccess(sourceJob);
+        sourceJob.getBuildersList().add(new TestBuilder() {
+            @Override
+            public boolean perform(AbstractBuild<?, ?> build, Launcher launcher, BuildListener listener) {
+                build.setResult(Result.UNSTABLE);
+                return true;
+            }
+        });
+        FreeStyleBuild unstable = jenkins.assertBuildStatus(Result.UNSTABLE, sourceJob.scheduleBuild2(0));
+
+        // 默认只接受成功的构建
+        assertEquals("SUCCESS", parameterDefinition.getAcceptedResults());
+        assertEquals(Arrays.asList(success.getDisplayName()), parameterDefinition.getChoices());
+
+        parameterDefinition.setAcceptedResults("unstable, success");
+        assertEquals("SUCCESS,UNSTABLE", parameterDefinition.getAcceptedResults());
+        assertEquals(Arrays.asList(unstable.getDisplayName(), success.getDisplayName()), parameterDefinition.getChoices());
+
+        // 只接受永久保留的构建
+        parameterDefinition.setKeptBuildsOnly(true);
+        assertEquals(Arrays.asList("0.0.1-1+999"),
+                parameterDefinition.getChoices());
+        success.keepLog(true);
+        assertEquals(Arrays.asList(success.getDisplayName()), parameterDefinition.getChoices());
+
+        JobBuildNameParameterDefinition.DescriptorImpl descriptor = new JobBuildNameParameterDefinition.DescriptorImpl();
+        assertEquals(FormValidation.Kind.ERROR, descriptor.doCheckAcceptedResults("SUCCESS,BROKEN").kind);
+
+        // 保存时忽略未知的结果，而不是让配置页面报错
+        parameterDefinition.setAcceptedResults("unstable, broken");
+        assertEquals("UNSTABLE", parameterDefinition.getAcceptedResults());
+        parameterDefinition.setAcceptedResults("broken");
+        assertEquals("SUCCESS", parameterDefinition.getAcceptedResults());
+    }
+
+    @Test
+    public void testStrictValidation() throws Exception {
+        FreeStyleBuild build = jenkins.buildAndAssertSuccess(sourceJob);
+        build.setDisplayName("1.0.0");
+
+        // 默认不校验
+        assertEquals("unknown", parameterDefinition.createValue("unknown").getValue());
+
+        parameterDefinition.setStrictValidation(true);
+        assertEquals("1.0.0", parameterDefinition.createValue("1.0.0").getValue());
+        assertEquals("0.0.1-1+999", parameterDefinition.createValue("0.0.1-1+999").getValue());
+        assertTrue(parameterDefinition.isValid(new StringParameterValue("BUILD_NAME", "1.0.0")));
+        assertFalse(parameterDefinition.isValid(new StringParameterValue("BUILD_NAME", "unknown")));
+
+        try {
+            parameterDefinition.createValue("unknown");
+            fail("Unknown build name should be rejected");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("unknown"));
+        }
+
+        // 失败的构建不是合法的值
+        sourceJob.getBuildersList().add(new TestBuilder() {
+            @Override
+            public boolean perform(AbstractBuild<?, ?> build, Launcher launcher, BuildListener listener) {
+                return false;
+            }
+        });
+        FreeStyleBuild failed = jenkins.assertBuildStatus(Result.FAILURE, sourceJob.scheduleBuild2(0));
+        assertFalse(parameterDefinition.isValid(new StringParameterValue("BUILD_NAME", failed.getDisplayName())));
+    }
+}
@@ -0,0 +1,42 @@
+package io.jenkinsci.plugins.opsbox.utility.parameter;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class VersionKeyTest {
+
+    @Test
+    public void testParse() {
+        assertEquals("0.0.1-1", VersionKey.of("0.0.1-1+999").toString());
+        assertEquals("1.2.3", VersionKey.of("v1.2.3").toString());
+        assertEquals("2.0.0", VersionKey.of("2").toString());
+        assertNull(VersionKey.of("release-candidate"));
+        assertNull(VersionKey.of("#42"));
+        assertNull(VersionKey.of(null));
+    }
+
+    @Test
+    public void testPrecedence() {
+        assertTrue(compare("1.0.0", "0.9.9") > 0);
+        assertTrue(compare("1.10.0", "1.9.0") > 0);
+        // 正式版本高于预发布版本
+        assertTrue(compare("1.0.0", "1.0.0-1") > 0);
+        assertTrue(compare("0.0.1-2+1", "0.0.1-1+999") > 0);
+        assertTrue(compare("1.0.0-10", "1.0.0-9") > 0);
+        // 数字标识符低于字母数字标识符
+        assertTrue(compare("1.0.0-alpha", "1.0.0-1") > 0);
+        assertTrue(compare("1.0.0-alpha.1", "1.0.0-alpha") > 0);
+        // 构建元数据不参与比较
+        assertEquals(0, compare("1.0.0-1+1", "1.0.0-1+2"));
+    }
+
+    @Test
+    public void testKeysAreMemoized() {
+        assertSame(VersionKey.of("3.2.1-1+7"), VersionKey.of("3.2.1-1+7"));
+    }
+
+    private static int compare(String a, String b) {
+        return VersionKey.of(a).compareTo(VersionKey.of(b));
+    }
+}